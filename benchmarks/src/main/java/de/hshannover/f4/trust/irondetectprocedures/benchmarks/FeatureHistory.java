@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+
+/**
+ * A bounded feature history that keeps its prefix between drops: features
+ * are appended until the capacity is reached, then the older half is dropped
+ * at once. Procedures that remember what they have seen with a
+ * {@link FeatureCursor} take in only the new features between drops, as with
+ * the growing history of irondetect, and start over once per drop. Dropping
+ * the oldest feature on every event would restart them on every call and
+ * shift the whole list each time.
+ *
+ * @author Trust@HsH
+ */
+public final class FeatureHistory {
+
+    private final int capacity;
+    private final List<Feature> features;
+
+    /**
+     * @param capacity maximum number of features kept, 0 for unbounded
+     */
+    public FeatureHistory(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.features = new ArrayList<Feature>(capacity > 0 ? capacity : 16);
+    }
+
+    /**
+     * Appends a feature, after dropping the older half of a full history.
+     *
+     * @param feature
+     * @return the history, to be passed to <code>calculate</code>
+     */
+    public List<Feature> add(Feature feature) {
+        if (this.capacity > 0 && this.features.size() == this.capacity) {
+            this.features.subList(0, this.capacity - this.capacity / 2).clear();
+        }
+        this.features.add(feature);
+        return this.features;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.Random;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * An endless stream of quantitive features as a monitored device would
+ * report them: a value around a baseline with a daily cycle, gaussian noise
+ * and rare spikes. Timestamps start at {@link SyntheticFeatures#START_MILLIS}
+ * and advance by the configured rate, independent of how fast the stream is
+ * consumed, so time based procedures see the intended event rate.
+ *
+ * @author Trust@HsH
+ */
+public final class FeatureStream {
+
+    private static final double BASELINE = 500;
+    private static final double DAILY_AMPLITUDE = 200;
+    private static final double NOISE = 50;
+    private static final double SPIKE_PROBABILITY = 0.001;
+    private static final double SPIKE_FACTOR = 5;
+    private static final double MILLIS_PER_DAY = 86400000d;
+
+    private final double millisPerEvent;
+    private final Random random;
+    private long count;
+
+    /**
+     * @param eventsPerSecond
+     * @param seed
+     */
+    public FeatureStream(double eventsPerSecond, long seed) {
+        if (eventsPerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive, got " + eventsPerSecond);
+        }
+        this.millisPerEvent = 1000d / eventsPerSecond;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return the next feature of the stream
+     */
+    public Feature next() {
+        long offset = (long) (this.count * this.millisPerEvent);
+        this.count++;
+        double cycle = Math.sin(2 * Math.PI * offset / MILLIS_PER_DAY);
+        double value = BASELINE + DAILY_AMPLITUDE * cycle + NOISE * this.random.nextGaussian();
+        if (this.random.nextDouble() < SPIKE_PROBABILITY) {
+            value *= SPIKE_FACTOR;
+        }
+        return SyntheticFeatures.feature(String.valueOf(Math.max(0, Math.round(value))),
+                SyntheticFeatures.START_MILLIS + offset);
+    }
+
+    /**
+     * @return the number of features created so far
+     */
+    public long getCount() {
+        return this.count;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.util.Helper;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureTimeOrder;
+
+/**
+ * Sorting features in random timestamp order with the Calendar parsing
+ * comparator the procedures used before and with
+ * {@link FeatureTimeOrder#sort(List)}. Both sort a fresh copy of the list,
+ * copying is part of the measured time.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package
+ * java -jar benchmarks/target/benchmarks.jar FeatureTimeOrderBenchmark
+ * </pre>
+ *
+ * @author Trust@HsH
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureTimeOrderBenchmark {
+
+    private static final ContextParamType DATETIME = new ContextParamType(ContextParamType.DATETIME);
+
+    @Param({ "1000", "10000", "50000" })
+    public int size;
+
+    private List<Feature> features;
+
+    @Setup(Level.Trial)
+    public void createFeatures() {
+        features = SyntheticFeatures.create(size, SyntheticFeatures.Ordering.RANDOM, 42);
+    }
+
+    @Benchmark
+    public List<Feature> calendarComparator() {
+        List<Feature> copy = new ArrayList<Feature>(features);
+        Collections.sort(copy, new CalendarComparator());
+        return copy;
+    }
+
+    @Benchmark
+    public List<Feature> sortKeys() {
+        List<Feature> copy = new ArrayList<Feature>(features);
+        FeatureTimeOrder.sort(copy);
+        return copy;
+    }
+
+    /**
+     * Parses both timestamps on every comparison.
+     */
+    private static class CalendarComparator implements Comparator<Feature> {
+
+        @Override
+        public int compare(Feature f1, Feature f2) {
+            Calendar contextF1 = Helper.getXsdStringAsCalendar(f1.getContextParameterByType(DATETIME).getValue());
+            Calendar contextF2 = Helper.getXsdStringAsCalendar(f2.getContextParameterByType(DATETIME).getValue());
+            return contextF1.compareTo(contextF2);
+        }
+    }
+}
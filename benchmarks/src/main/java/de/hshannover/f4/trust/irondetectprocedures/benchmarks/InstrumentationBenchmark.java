@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.metrics.InstrumentedProcedure;
+
+/**
+ * Overhead of {@link InstrumentedProcedure}: <code>calculate</code> of the
+ * plain and of the wrapped procedure on an unchanged history, which is the
+ * cheapest call and so shows the overhead at its largest. The wrapped
+ * variant should stay within a few percent of the plain one.
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar InstrumentationBenchmark
+ * </pre>
+ *
+ * @author Trust@HsH
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({ "MEAN", "MEDIAN", "MEAN_DAILY", "TREND" })
+    public Procedures procedure;
+
+    @Param({ "false", "true" })
+    public boolean instrumented;
+
+    @Param({ "1000" })
+    public int size;
+
+    private Procedureable instance;
+    private List<Feature> features;
+    private List<Context> contexts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // set up once, through the wrapper if there is one
+        Procedureable plain = procedure.newInstance();
+        instance = instrumented ? new InstrumentedProcedure(plain) : plain;
+        instance.setUp(procedure.getConfig());
+        features = SyntheticFeatures.create(size, SyntheticFeatures.Ordering.SORTED, 42);
+        contexts = new ArrayList<Context>();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        instance.tearDown(procedure.getConfig());
+    }
+
+    @Benchmark
+    public ProcedureResult calculate() {
+        return instance.calculate(features, contexts);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+
+/**
+ * Feeds one procedure with a {@link FeatureStream} at a steady rate for a
+ * long time, the way irondetect calls it: every event is appended to the
+ * feature history and <code>calculate</code> is called with the whole
+ * history.
+ *
+ * Latencies are measured from the time an event was due, not from when the
+ * call actually started, so a procedure that falls behind is charged for the
+ * waiting events as well. Every interval a line with latency percentiles,
+ * the heap still used after the last collection and the collections of the
+ * interval is printed; the interval histograms are written to
+ * <code>&lt;out&gt;.hlog</code> and the percentile distribution of the whole
+ * run to <code>&lt;out&gt;.hgrm</code>, both in the HdrHistogram formats.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar \
+ *     de.hshannover.f4.trust.irondetectprocedures.benchmarks.LoadGenerator \
+ *     TREND_BY_VALUE_CW rate=1000 duration=7200 history=0
+ * </pre>
+ *
+ * Options, all optional:
+ * <ul>
+ * <li>rate: events per second, default 1000</li>
+ * <li>duration: seconds, default 3600</li>
+ * <li>history: number of features kept in the history, the older half is
+ * dropped when it is full, see {@link FeatureHistory}; 0 keeps everything,
+ * default 10000</li>
+ * <li>interval: seconds between reports, default 10</li>
+ * <li>config: setUp configuration, default that of {@link Procedures}</li>
+ * <li>out: base name of the report files, default load-&lt;procedure&gt;</li>
+ * <li>seed: of the feature stream, default 42</li>
+ * </ul>
+ *
+ * @author Trust@HsH
+ */
+public final class LoadGenerator {
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Procedures procedure;
+    private final double rate;
+    private final long durationNanos;
+    private final int history;
+    private final long intervalNanos;
+    private final String config;
+    private final String out;
+    private final long seed;
+
+    private final PrintStream console;
+
+    private long gcCount;
+    private long gcMillis;
+
+    private LoadGenerator(Procedures procedure, Map<String, String> options, PrintStream console) {
+        this.procedure = procedure;
+        this.rate = Double.parseDouble(option(options, "rate", "1000"));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option(options, "duration", "3600")));
+        this.history = Integer.parseInt(option(options, "history", "10000"));
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option(options, "interval", "10")));
+        this.config = option(options, "config", procedure.getConfig());
+        this.out = option(options, "out", "load-" + procedure.name().toLowerCase(Locale.ROOT));
+        this.seed = Long.parseLong(option(options, "seed", "42"));
+        this.console = console;
+        if (this.rate <= 0 || this.durationNanos <= 0 || this.intervalNanos <= 0 || this.history < 0) {
+            throw new IllegalArgumentException("rate, duration and interval must be positive, history must not be negative");
+        }
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("unknown options " + options.keySet());
+        }
+    }
+
+    private static String option(Map<String, String> options, String key, String defaultValue) {
+        String value = options.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Runs the load and writes the reports.
+     *
+     * @throws FileNotFoundException if a report file cannot be created
+     */
+    public void run() throws FileNotFoundException {
+        Procedureable instance = this.procedure.create(this.config);
+        FeatureStream stream = new FeatureStream(this.rate, this.seed);
+        FeatureHistory features = new FeatureHistory(this.history);
+        List<Feature> latest = new ArrayList<Feature>(1);
+        List<Context> contexts = new ArrayList<Context>();
+
+        Histogram interval = new Histogram(3);
+        Histogram total = new Histogram(3);
+        HistogramLogWriter log = new HistogramLogWriter(new File(this.out + ".hlog"));
+        double nanosPerEvent = TimeUnit.SECONDS.toNanos(1) / this.rate;
+
+        console.printf(Locale.ROOT, "%s '%s' at %.0f events/s for %d s, history %s%n", this.procedure, this.config,
+                this.rate, TimeUnit.NANOSECONDS.toSeconds(this.durationNanos),
+                this.history == 0 ? "unbounded" : String.valueOf(this.history));
+        console.printf("%8s %10s %10s %10s %10s %10s %10s %12s %8s %8s%n", "time[s]", "events", "p50[us]", "p90[us]",
+                "p99[us]", "p99.9[us]", "max[us]", "retained[MB]", "gcs", "gc[ms]");
+
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        log.outputLogFormatVersion();
+        log.outputStartTime(startMillis);
+        log.setBaseTime(startMillis);
+        log.outputLegend();
+        updateGcTotals();
+        interval.setStartTimeStamp(startMillis);
+
+        long nextReport = start + this.intervalNanos;
+        long end = start + this.durationNanos;
+        long due = start;
+        while (due < end) {
+            waitUntil(due);
+
+            Feature feature = stream.next();
+            if (this.procedure.isNewFeaturesOnly()) {
+                latest.clear();
+                latest.add(feature);
+                instance.calculate(latest, contexts);
+            } else {
+                instance.calculate(features.add(feature), contexts);
+            }
+
+            long now = System.nanoTime();
+            interval.recordValue(now - due);
+
+            if (now >= nextReport) {
+                report(interval, total, log, now - start);
+                nextReport += this.intervalNanos;
+            }
+            due = start + (long) (stream.getCount() * nanosPerEvent);
+        }
+        report(interval, total, log, System.nanoTime() - start);
+        log.close();
+        instance.tearDown(this.config);
+
+        PrintStream distribution = new PrintStream(new File(this.out + ".hgrm"));
+        try {
+            total.outputPercentileDistribution(distribution, 1000.0);
+        } finally {
+            distribution.close();
+        }
+        console.printf(Locale.ROOT, "%d events, p99.9 %.1f us, max %.1f us, reports in %s.hlog and %s.hgrm%n",
+                total.getTotalCount(), total.getValueAtPercentile(99.9) / 1000.0, total.getMaxValue() / 1000.0,
+                this.out, this.out);
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            }
+        }
+    }
+
+    private void report(Histogram interval, Histogram total, HistogramLogWriter log, long elapsedNanos) {
+        long nowMillis = System.currentTimeMillis();
+        interval.setEndTimeStamp(nowMillis);
+        long gcs = this.gcCount;
+        long gcTime = this.gcMillis;
+        updateGcTotals();
+
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "%8.1f %10d", elapsedNanos / 1e9, interval.getTotalCount()));
+        for (double percentile : PERCENTILES) {
+            line.append(String.format(Locale.ROOT, " %10.1f", interval.getValueAtPercentile(percentile) / 1000.0));
+        }
+        line.append(String.format(Locale.ROOT, " %10.1f %12.1f %8d %8d", interval.getMaxValue() / 1000.0,
+                retainedHeap() / (1024.0 * 1024.0), this.gcCount - gcs, this.gcMillis - gcTime));
+        console.println(line);
+
+        log.outputIntervalHistogram(interval);
+        total.add(interval);
+        interval.reset();
+        interval.setStartTimeStamp(nowMillis);
+    }
+
+    private void updateGcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        this.gcCount = count;
+        this.gcMillis = millis;
+    }
+
+    /**
+     * @return the heap in use right after the last collection of each pool,
+     *         which is what the procedure and the history retain
+     */
+    private static long retainedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static void usage(PrintStream err) {
+        StringBuilder names = new StringBuilder();
+        for (Procedures p : Procedures.values()) {
+            names.append(names.length() > 0 ? "|" : "").append(p.name());
+        }
+        err.println("usage: LoadGenerator " + names
+                + " [rate=N] [duration=s] [history=N] [interval=s] [config=...] [out=name] [seed=N]");
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length == 0) {
+            usage(System.err);
+            System.exit(1);
+        }
+        Procedures procedure;
+        try {
+            procedure = Procedures.valueOf(args[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            usage(System.err);
+            System.exit(1);
+            return;
+        }
+        Map<String, String> options = new HashMap<String, String>();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq <= 0) {
+                usage(System.err);
+                System.exit(1);
+            }
+            options.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+        }
+        new LoadGenerator(procedure, options, System.out).run();
+    }
+}
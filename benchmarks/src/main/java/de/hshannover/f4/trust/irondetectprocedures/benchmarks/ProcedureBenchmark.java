@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureBatch;
+
+/**
+ * <code>calculate</code> and <code>train</code> of every procedure on
+ * synthetic feature lists of 10 to 10^6 features in sorted, reversed and
+ * random timestamp order.
+ *
+ * Each invocation gets a freshly set up procedure and a fresh copy of the
+ * list, so incremental procedures do the full work of a first evaluation
+ * and procedures that reorder their input always see the requested order.
+ * Building both is outside of the measured time. The per-thread
+ * {@link FeatureBatch} is released as well, as it would otherwise recognize
+ * the features of the previous invocation and skip parsing them.
+ *
+ * With size=10 the timings are dominated by the overhead JMH has for each
+ * invocation with per-invocation setup, compare larger sizes only.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package
+ * java -jar benchmarks/target/benchmarks.jar ProcedureBenchmark -prof gc
+ * java -jar benchmarks/target/benchmarks.jar ProcedureBenchmark -p procedure=MEDIAN -p size=1000000
+ * </pre>
+ *
+ * or run {@link #main(String[])}, which adds the gc profiler for allocation
+ * rates.
+ *
+ * @author Trust@HsH
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcedureBenchmark {
+
+    @Param({ "MEAN", "VARIANCE", "STDDEV", "MEDIAN", "MEAN_DAILY", "MEAN_RATE", "TREND", "TREND_BY_VALUE",
+            "TREND_BY_VALUE_CW" })
+    public Procedures procedure;
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "SORTED", "REVERSED", "RANDOM" })
+    public SyntheticFeatures.Ordering ordering;
+
+    private List<Feature> features;
+    private Calendar[] trainingTime;
+    private List<Context> contexts;
+
+    private Procedureable instance;
+    private List<Feature> input;
+
+    @Setup(Level.Trial)
+    public void createFeatures() {
+        features = SyntheticFeatures.create(size, ordering, 42);
+        trainingTime = SyntheticFeatures.trainingTime(size);
+        contexts = new ArrayList<Context>();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        instance = procedure.create();
+        input = new ArrayList<Feature>(features);
+        FeatureBatch.release();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() {
+        instance.tearDown(procedure.getConfig());
+    }
+
+    @Benchmark
+    public ProcedureResult calculate() {
+        return instance.calculate(input, contexts);
+    }
+
+    @Benchmark
+    public Procedureable train() {
+        instance.train(input, contexts, trainingTime[0], trainingTime[1]);
+        return instance;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ProcedureBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
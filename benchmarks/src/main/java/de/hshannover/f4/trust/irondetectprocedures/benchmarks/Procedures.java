@@ -0,0 +1,144 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.Mean;
+import de.hshannover.f4.trust.irondetectprocedures.MeanDaily;
+import de.hshannover.f4.trust.irondetectprocedures.MeanRate;
+import de.hshannover.f4.trust.irondetectprocedures.Median;
+import de.hshannover.f4.trust.irondetectprocedures.StdDev;
+import de.hshannover.f4.trust.irondetectprocedures.Trend;
+import de.hshannover.f4.trust.irondetectprocedures.TrendByValue;
+import de.hshannover.f4.trust.irondetectprocedures.TrendByValueCW;
+import de.hshannover.f4.trust.irondetectprocedures.Variance;
+
+/**
+ * Every procedure of the reactor with a configuration suitable for
+ * benchmarking. The trend procedures run with tracing off so the benchmarks
+ * do not measure the disk.
+ *
+ * @author Trust@HsH
+ */
+public enum Procedures {
+
+    MEAN("500"), VARIANCE("80000"), STDDEV("290"), MEDIAN("500"), MEAN_DAILY("86400"), MEAN_RATE("60;granularity=minute"),
+    TREND("1;trace=off"), TREND_BY_VALUE("1;trace=off"), TREND_BY_VALUE_CW("1;trace=off", true);
+
+    private final String config;
+    private final boolean newFeaturesOnly;
+
+    private Procedures(String config) {
+        this(config, false);
+    }
+
+    private Procedures(String config, boolean newFeaturesOnly) {
+        this.config = config;
+        this.newFeaturesOnly = newFeaturesOnly;
+    }
+
+    public String getConfig() {
+        return config;
+    }
+
+    /**
+     * @return true if <code>calculate</code> expects the features that are
+     *         new since the last call instead of the whole history, as the
+     *         windowed trend does
+     */
+    public boolean isNewFeaturesOnly() {
+        return newFeaturesOnly;
+    }
+
+    /**
+     * @return a new instance, set up with {@link #getConfig()}
+     */
+    public Procedureable create() {
+        return create(this.config);
+    }
+
+    /**
+     * @param setUpConfig
+     * @return a new instance, set up with the given configuration
+     */
+    public Procedureable create(String setUpConfig) {
+        Procedureable procedure = newInstance();
+        procedure.setUp(setUpConfig);
+        return procedure;
+    }
+
+    /**
+     * @return a new instance that is not set up yet, e.g. to be wrapped
+     */
+    public Procedureable newInstance() {
+        Procedureable procedure;
+        switch (this) {
+        case MEAN:
+            procedure = new Mean();
+            break;
+        case VARIANCE:
+            procedure = new Variance();
+            break;
+        case STDDEV:
+            procedure = new StdDev();
+            break;
+        case MEDIAN:
+            procedure = new Median();
+            break;
+        case MEAN_DAILY:
+            procedure = new MeanDaily();
+            break;
+        case MEAN_RATE:
+            procedure = new MeanRate();
+            break;
+        case TREND:
+            procedure = new Trend();
+            break;
+        case TREND_BY_VALUE:
+            procedure = new TrendByValue();
+            break;
+        case TREND_BY_VALUE_CW:
+            procedure = new TrendByValueCW();
+            break;
+        default:
+            throw new IllegalStateException(name());
+        }
+        return procedure;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+
+/**
+ * Drives long-lived procedure instances through millions of
+ * <code>calculate</code> calls and measures the retained size of each
+ * instance graph with JOL at regular checkpoints. The feature history is
+ * bounded by a {@link FeatureHistory}, so anything that keeps growing is held
+ * by the procedure itself, and incremental procedures run on their streaming
+ * path between its drops. A procedure fails when its retained size at any checkpoint exceeds
+ * its bound; the suite then exits with status 1, which fails the build when
+ * run with <code>mvn -pl benchmarks -am verify -Pretention</code>.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar \
+ *     de.hshannover.f4.trust.irondetectprocedures.benchmarks.RetentionSuite \
+ *     procedures=TREND,MEDIAN calls=5000000 bound.MEDIAN=65536
+ * </pre>
+ *
+ * Options, all optional:
+ * <ul>
+ * <li>procedures: comma separated {@link Procedures}, default all</li>
+ * <li>calls: calculate calls per procedure, default 1000000</li>
+ * <li>checkpoints: number of measurements, default 10</li>
+ * <li>history: maximum size of the feature history, default 1000</li>
+ * <li>bound: retained bytes allowed per instance, default 65536</li>
+ * <li>bound.&lt;PROCEDURE&gt;: bound of a single procedure</li>
+ * <li>rate: events per second of the feature stream, default 10</li>
+ * <li>seed: of the feature stream, default 42</li>
+ * </ul>
+ *
+ * @author Trust@HsH
+ */
+public final class RetentionSuite {
+
+    private static final String BOUND_PREFIX = "bound.";
+
+    private final Set<Procedures> procedures;
+    private final long calls;
+    private final int checkpoints;
+    private final int history;
+    private final long bound;
+    private final Map<Procedures, Long> bounds = new HashMap<Procedures, Long>();
+    private final double rate;
+    private final long seed;
+    private final PrintStream console;
+
+    private RetentionSuite(Map<String, String> options, PrintStream console) {
+        this.procedures = parseProcedures(option(options, "procedures", null));
+        this.calls = Long.parseLong(option(options, "calls", "1000000"));
+        this.checkpoints = Integer.parseInt(option(options, "checkpoints", "10"));
+        this.history = Integer.parseInt(option(options, "history", "1000"));
+        this.bound = Long.parseLong(option(options, "bound", "65536"));
+        this.rate = Double.parseDouble(option(options, "rate", "10"));
+        this.seed = Long.parseLong(option(options, "seed", "42"));
+        this.console = console;
+        for (Procedures p : Procedures.values()) {
+            String value = option(options, BOUND_PREFIX + p.name(), null);
+            if (value != null) {
+                this.bounds.put(p, Long.valueOf(value));
+            }
+        }
+        if (this.calls <= 0 || this.checkpoints <= 0 || this.history <= 0) {
+            throw new IllegalArgumentException("calls, checkpoints and history must be positive");
+        }
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("unknown options " + options.keySet());
+        }
+    }
+
+    private static String option(Map<String, String> options, String key, String defaultValue) {
+        String value = options.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    private static Set<Procedures> parseProcedures(String list) {
+        if (list == null) {
+            return EnumSet.allOf(Procedures.class);
+        }
+        Set<Procedures> result = EnumSet.noneOf(Procedures.class);
+        for (String name : list.split(",")) {
+            result.add(Procedures.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the procedures that exceeded their bound
+     */
+    public List<Procedures> run() {
+        List<Procedures> failed = new ArrayList<Procedures>();
+        for (Procedures p : this.procedures) {
+            if (!check(p)) {
+                failed.add(p);
+            }
+        }
+        if (failed.isEmpty()) {
+            this.console.println("all procedures within their bounds");
+        } else {
+            this.console.println("retained memory exceeded by " + failed);
+        }
+        return failed;
+    }
+
+    private boolean check(Procedures p) {
+        Long procedureBound = this.bounds.get(p);
+        long limit = procedureBound != null ? procedureBound.longValue() : this.bound;
+        Procedureable instance = p.create();
+        FeatureStream stream = new FeatureStream(this.rate, this.seed);
+        FeatureHistory features = new FeatureHistory(this.history);
+        List<Feature> latest = new ArrayList<Feature>(1);
+        List<Context> contexts = new ArrayList<Context>();
+
+        this.console.printf(Locale.ROOT, "%s '%s', bound %d bytes%n", p, p.getConfig(), limit);
+        this.console.printf("%12s %12s %10s%n", "calls", "retained[B]", "objects");
+
+        boolean within = true;
+        long first = -1;
+        long retained = 0;
+        long step = Math.max(1, this.calls / this.checkpoints);
+        for (long call = 1; call <= this.calls; call++) {
+            Feature feature = stream.next();
+            if (p.isNewFeaturesOnly()) {
+                latest.clear();
+                latest.add(feature);
+                instance.calculate(latest, contexts);
+            } else {
+                instance.calculate(features.add(feature), contexts);
+            }
+
+            if (call % step == 0 || call == this.calls) {
+                GraphLayout layout = GraphLayout.parseInstance(instance);
+                retained = layout.totalSize();
+                if (first < 0) {
+                    first = retained;
+                }
+                boolean exceeded = retained > limit;
+                within &= !exceeded;
+                this.console.printf("%12d %12d %10d%s%n", call, retained, layout.totalCount(),
+                        exceeded ? "  EXCEEDED" : "");
+            }
+        }
+        instance.tearDown(p.getConfig());
+        this.console.printf(Locale.ROOT, "%s grew by %d bytes from the first checkpoint%n%n", p, retained - first);
+        return within;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("usage: RetentionSuite [procedures=A,B] [calls=N] [checkpoints=N] [history=N]"
+                        + " [bound=bytes] [bound.<PROCEDURE>=bytes] [rate=N] [seed=N]");
+                System.exit(1);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        List<Procedures> failed = new RetentionSuite(options, System.out).run();
+        System.exit(failed.isEmpty() ? 0 : 1);
+    }
+}
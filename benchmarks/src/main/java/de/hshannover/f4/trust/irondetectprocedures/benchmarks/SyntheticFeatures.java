@@ -0,0 +1,191 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+import de.hshannover.f4.trust.irondetect.model.TrustLog;
+
+/**
+ * Creates reproducible synthetic feature lists: quantitive features one
+ * second apart, starting at {@link #START_MILLIS}, with values from 0 to
+ * 999, in the requested timestamp order.
+ *
+ * @author Trust@HsH
+ */
+public final class SyntheticFeatures {
+
+    /**
+     * Order of the features in the list
+     */
+    public enum Ordering {
+        SORTED, REVERSED, RANDOM
+    }
+
+    /**
+     * 2013-01-01T00:00:00Z
+     */
+    public static final long START_MILLIS = 1356998400000L;
+
+    private static final ContextParamType DATETIME = new ContextParamType(ContextParamType.DATETIME);
+    private static final FeatureType QUANTITIVE = new FeatureType(FeatureType.QUANTITIVE);
+
+    private SyntheticFeatures() {
+    }
+
+    /**
+     * @param n number of features
+     * @param ordering
+     * @param seed for the values and the random order
+     * @return a new, modifiable list
+     */
+    public static List<Feature> create(int n, Ordering ordering, long seed) {
+        Random random = new Random(seed);
+        List<Feature> features = new ArrayList<Feature>(n);
+        for (int i = 0; i < n; i++) {
+            features.add(feature(String.valueOf(random.nextInt(1000)), START_MILLIS + i * 1000L));
+        }
+        if (ordering == Ordering.REVERSED) {
+            Collections.reverse(features);
+        } else if (ordering == Ordering.RANDOM) {
+            Collections.shuffle(features, random);
+        }
+        return features;
+    }
+
+    /**
+     * @param n number of features created
+     * @return calendars for the first and the last timestamp, for training
+     */
+    public static Calendar[] trainingTime(int n) {
+        Calendar start = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        start.setTimeInMillis(START_MILLIS);
+        Calendar end = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        end.setTimeInMillis(START_MILLIS + Math.max(0, n - 1) * 1000L);
+        return new Calendar[] { start, end };
+    }
+
+    /**
+     * @param value
+     * @param millis
+     * @return a quantitive feature with the given value and timestamp
+     */
+    public static Feature feature(String value, long millis) {
+        List<ContextParameter> ctxp = new ArrayList<ContextParameter>(1);
+        ctxp.add(new ContextParameter(DATETIME, xsdDateTime(millis)));
+        return new RatedFeature(value, ctxp);
+    }
+
+    /**
+     * Formats an instant as xsd:dateTime in UTC, much faster than
+     * SimpleDateFormat when creating millions of features.
+     *
+     * @param millis
+     * @return e.g. 2013-01-01T00:00:00Z
+     */
+    static String xsdDateTime(long millis) {
+        long seconds = Math.floorDiv(millis, 1000L);
+        long days = Math.floorDiv(seconds, 86400L);
+        int secondOfDay = (int) Math.floorMod(seconds, 86400L);
+        // civil from days, proleptic Gregorian
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        StringBuilder sb = new StringBuilder(20);
+        sb.append(year).append('-');
+        pad(sb, month).append('-');
+        pad(sb, day).append('T');
+        pad(sb, secondOfDay / 3600).append(':');
+        pad(sb, secondOfDay / 60 % 60).append(':');
+        pad(sb, secondOfDay % 60).append('Z');
+        return sb.toString();
+    }
+
+    private static StringBuilder pad(StringBuilder sb, int value) {
+        if (value < 10) {
+            sb.append('0');
+        }
+        return sb.append(value);
+    }
+
+    /**
+     * Trend reads the security property ratings of the sender from the trust
+     * log of a feature, which a synthetic feature does not have otherwise.
+     */
+    private static final class RatedFeature extends Feature {
+
+        private static final TrustLog TRUST_LOG = new RatedTrustLog();
+
+        RatedFeature(String value, List<ContextParameter> ctxp) {
+            super("synthetic", value, QUANTITIVE, ctxp);
+        }
+
+        @Override
+        public TrustLog getTrustLog() {
+            return TRUST_LOG;
+        }
+    }
+
+    private static final class RatedTrustLog extends TrustLog {
+
+        private static final List<Integer> RATINGS = Collections.unmodifiableList(Arrays.asList(3, 4, 5));
+
+        @Override
+        public List<Integer> getProcessSenderSecurityPropertyRatings() {
+            return RATINGS;
+        }
+    }
+}
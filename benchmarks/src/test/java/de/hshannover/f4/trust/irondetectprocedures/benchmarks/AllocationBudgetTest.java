@@ -0,0 +1,146 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of benchmarks, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.benchmarks;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+
+/**
+ * Bytes allocated per <code>calculate</code> call in steady state, i.e. when
+ * one feature was appended to the history since the last call, measured with
+ * the allocation counter of the current thread after a warm-up.
+ *
+ * The budget of a procedure covers the result object and parsing the value
+ * of the new feature. Raise it only together with the change that needs it.
+ *
+ * @author Trust@HsH
+ */
+@RunWith(Parameterized.class)
+public class AllocationBudgetTest {
+
+    private static final int WARMUP = 20000;
+    private static final int MEASURED = 20000;
+
+    private final Procedures procedure;
+    private final long budget;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    public AllocationBudgetTest(Procedures procedure, long budget) {
+        this.procedure = procedure;
+        this.budget = budget;
+    }
+
+    @Parameters
+    public static Collection<Object[]> budgets() {
+        return Arrays.asList(new Object[][] {
+                { Procedures.MEAN, 192L },
+                { Procedures.VARIANCE, 192L },
+                { Procedures.STDDEV, 192L },
+                { Procedures.MEDIAN, 192L },
+                { Procedures.MEAN_DAILY, 192L },
+                { Procedures.MEAN_RATE, 192L },
+                { Procedures.TREND, 192L },
+                { Procedures.TREND_BY_VALUE, 192L },
+                { Procedures.TREND_BY_VALUE_CW, 192L } });
+    }
+
+    @Before
+    public void setUp() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(this.threads.isThreadAllocatedMemorySupported());
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testCalculateStaysWithinBudget() {
+        FeatureStream stream = new FeatureStream(10, 42);
+        Feature[] stock = new Feature[WARMUP + MEASURED];
+        for (int i = 0; i < stock.length; i++) {
+            stock[i] = stream.next();
+        }
+        List<Feature> history = new ArrayList<Feature>(stock.length);
+        Procedureable instance = this.procedure.create();
+
+        feed(instance, stock, 0, WARMUP, history);
+        long thread = Thread.currentThread().getId();
+        long before = this.threads.getThreadAllocatedBytes(thread);
+        feed(instance, stock, WARMUP, stock.length, history);
+        long perCall = (this.threads.getThreadAllocatedBytes(thread) - before) / MEASURED;
+        instance.tearDown(this.procedure.getConfig());
+
+        assertTrue(this.procedure + " allocates " + perCall + " bytes per calculate, budget " + this.budget,
+                perCall <= this.budget);
+    }
+
+    /**
+     * Appends the features to the history with one calculate call each. The
+     * history has room for all of them, so feeding does not allocate.
+     */
+    private void feed(Procedureable instance, Feature[] stock, int from, int to, List<Feature> history) {
+        List<Context> contexts = Collections.emptyList();
+        for (int i = from; i < to; i++) {
+            if (this.procedure.isNewFeaturesOnly()) {
+                history.clear();
+            }
+            history.add(stock[i]);
+            instance.calculate(history, contexts);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.inspect;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import de.hshannover.f4.trust.irondetectprocedures.metrics.ProcedureMetrics;
+
+/**
+ * The states of all procedure instances that can be inspected. Procedures
+ * register their state on setUp and unregister it on tearDown. Only weak
+ * references are kept, so a procedure that is never torn down does not leak.
+ * The registry is published over JMX on the first registration.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class InspectionRegistry implements InspectionMXBean {
+
+	private static Logger logger = Logger.getLogger(InspectionRegistry.class);
+
+	private static final InspectionRegistry INSTANCE = new InspectionRegistry();
+
+	private final Map<String, WeakReference<PublishedState>> states = new ConcurrentHashMap<String, WeakReference<PublishedState>>();
+	private volatile boolean published;
+
+	private InspectionRegistry() {
+	}
+
+	/**
+	 * @return the registry of this JVM
+	 */
+	public static InspectionRegistry get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param state
+	 */
+	public static void register(PublishedState state) {
+		INSTANCE.add(state);
+	}
+
+	/**
+	 * @param state
+	 *            may be null or not registered
+	 */
+	public static void unregister(PublishedState state) {
+		if (state != null) {
+			INSTANCE.states.remove(state.getName());
+		}
+	}
+
+	private void add(PublishedState state) {
+		purge();
+		states.put(state.getName(), new WeakReference<PublishedState>(state));
+		if (!published) {
+			publish();
+		}
+	}
+
+	private synchronized void publish() {
+		if (published) {
+			return;
+		}
+		published = true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+					new ObjectName(ProcedureMetrics.DOMAIN + ":type=Inspection"));
+		} catch (JMException e) {
+			logger.warn("could not register the inspection of procedure states: " + e);
+		}
+	}
+
+	private void purge() {
+		for (Iterator<WeakReference<PublishedState>> it = states.values().iterator(); it.hasNext();) {
+			if (it.next().get() == null) {
+				it.remove();
+			}
+		}
+	}
+
+	@Override
+	public List<String> getNames() {
+		purge();
+		List<String> names = new ArrayList<String>(states.keySet());
+		Collections.sort(names);
+		return names;
+	}
+
+	@Override
+	public List<StateSnapshot> getSnapshots() {
+		List<StateSnapshot> snapshots = new ArrayList<StateSnapshot>();
+		for (String name : getNames()) {
+			StateSnapshot snapshot = snapshot(name);
+			if (snapshot != null) {
+				snapshots.add(snapshot);
+			}
+		}
+		return snapshots;
+	}
+
+	@Override
+	public StateSnapshot snapshot(String name) {
+		WeakReference<PublishedState> ref = states.get(name);
+		PublishedState state = ref != null ? ref.get() : null;
+		return state != null ? state.snapshot() : null;
+	}
+}
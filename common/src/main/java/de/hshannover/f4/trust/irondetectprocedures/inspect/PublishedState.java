@@ -0,0 +1,280 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.inspect;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The internal state of one procedure instance, published by the procedure
+ * after each evaluation and read from other threads without ever blocking
+ * it. The state is a fixed set of named values plus an optional series of
+ * up to a fixed number of values, e.g. the points of a window.
+ * 
+ * Publishing is a seqlock: the version is made odd, the values are written
+ * and the version is made even again. A reader copies the values between two
+ * reads of the version and retries if a publish was running or happened in
+ * between, so only readers ever wait. A publish that finds another one
+ * running is skipped instead of waiting.
+ * 
+ * <pre>
+ * if (state.beginPublish()) {
+ * 	state.put(SLOPE, slope);
+ * 	state.endPublish();
+ * }
+ * </pre>
+ * 
+ * Procedures that compare a statistic with an expected value start their
+ * names with {@link #expectation(String...)} and publish those values with
+ * {@link #publish(double, double, double, double, boolean)}, or with
+ * {@link #beginPublish(double, double, double, double, boolean)} when they
+ * have more to publish.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class PublishedState {
+
+	/**
+	 * Index of the first value after those of {@link #expectation(String...)}
+	 */
+	public static final int FIRST_EXTRA = 5;
+
+	private static final String[] EXPECTATION = { "statistic", "expected", "trained", "expectedByPolicy",
+			"trainingDone" };
+
+	private static final AtomicInteger instances = new AtomicInteger();
+
+	private static final int VERSION = 0;
+	private static final int SERIES_LENGTH = 1;
+	private static final int HEADER = 2;
+	private static final int MAX_READ_ATTEMPTS = 1000;
+
+	private final String name;
+	private final String[] names;
+	private final int seriesCapacity;
+	private final AtomicLongArray cells;
+	private long version;
+
+	/**
+	 * @param owner
+	 *            e.g. the class name of the procedure, an instance number is
+	 *            appended
+	 * @param names
+	 *            of the values, in the order of their indices
+	 * @param seriesCapacity
+	 *            maximum length of the series, 0 for none
+	 */
+	public PublishedState(String owner, String[] names, int seriesCapacity) {
+		if (seriesCapacity < 0) {
+			throw new IllegalArgumentException("negative series capacity " + seriesCapacity);
+		}
+		this.name = owner + "#" + instances.getAndIncrement();
+		this.names = names.clone();
+		this.seriesCapacity = seriesCapacity;
+		this.cells = new AtomicLongArray(HEADER + names.length + seriesCapacity);
+	}
+
+	/**
+	 * @param more
+	 *            names of values published in addition, from
+	 *            {@link #FIRST_EXTRA} on
+	 * @return the names of the statistic, the expected value, the trained
+	 *         value, the value expected by the policy and whether training was
+	 *         done, followed by more
+	 */
+	public static String[] expectation(String... more) {
+		String[] names = Arrays.copyOf(EXPECTATION, FIRST_EXTRA + more.length);
+		System.arraycopy(more, 0, names, FIRST_EXTRA, more.length);
+		return names;
+	}
+
+	/**
+	 * @return the unique name of this state
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the maximum length of the series
+	 */
+	public int getSeriesCapacity() {
+		return seriesCapacity;
+	}
+
+	/**
+	 * Starts a publish.
+	 * 
+	 * @return false if another thread is publishing right now, the caller
+	 *         skips this publish then
+	 */
+	public boolean beginPublish() {
+		long v = cells.get(VERSION);
+		if ((v & 1) != 0 || !cells.compareAndSet(VERSION, v, v + 1)) {
+			return false;
+		}
+		version = v + 1;
+		return true;
+	}
+
+	/**
+	 * Starts a publish and puts the values named by
+	 * {@link #expectation(String...)}. The caller puts its other values and
+	 * calls {@link #endPublish()} if this returns true.
+	 * 
+	 * @param statistic
+	 *            NaN if none was computed
+	 * @param expected
+	 * @param trained
+	 * @param expectedByPolicy
+	 * @param trainingDone
+	 * @return false if another thread is publishing right now, the caller
+	 *         skips this publish then
+	 */
+	public boolean beginPublish(double statistic, double expected, double trained, double expectedByPolicy,
+			boolean trainingDone) {
+		if (!beginPublish()) {
+			return false;
+		}
+		put(0, statistic);
+		put(1, expected);
+		put(2, trained);
+		put(3, expectedByPolicy);
+		put(4, trainingDone);
+		return true;
+	}
+
+	/**
+	 * Publishes the values named by {@link #expectation(String...)}, skipped
+	 * if another thread is publishing right now.
+	 * 
+	 * @param statistic
+	 *            NaN if none was computed
+	 * @param expected
+	 * @param trained
+	 * @param expectedByPolicy
+	 * @param trainingDone
+	 */
+	public void publish(double statistic, double expected, double trained, double expectedByPolicy,
+			boolean trainingDone) {
+		if (beginPublish(statistic, expected, trained, expectedByPolicy, trainingDone)) {
+			endPublish();
+		}
+	}
+
+	/**
+	 * @param index
+	 *            of the value in the names given on construction
+	 * @param value
+	 */
+	public void put(int index, double value) {
+		cells.lazySet(HEADER + index, Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * @param index
+	 * @param value
+	 *            true is published as 1, false as 0
+	 */
+	public void put(int index, boolean value) {
+		put(index, value ? 1 : 0);
+	}
+
+	/**
+	 * @param index
+	 *            in the series, less than {@link #getSeriesCapacity()}
+	 * @param value
+	 */
+	public void putSeries(int index, double value) {
+		if (index < 0 || index >= seriesCapacity) {
+			throw new IndexOutOfBoundsException("index " + index + ", capacity " + seriesCapacity);
+		}
+		cells.lazySet(HEADER + names.length + index, Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * @param length
+	 *            number of valid values in the series
+	 */
+	public void setSeriesLength(int length) {
+		if (length < 0 || length > seriesCapacity) {
+			throw new IndexOutOfBoundsException("length " + length + ", capacity " + seriesCapacity);
+		}
+		cells.lazySet(SERIES_LENGTH, length);
+	}
+
+	/**
+	 * Makes the values written since {@link #beginPublish()} visible.
+	 */
+	public void endPublish() {
+		cells.lazySet(VERSION, version + 1);
+	}
+
+	/**
+	 * Copies a consistent state, never blocking the publisher.
+	 * 
+	 * @return the last published state, null if publishing did not pause
+	 *         long enough to copy it
+	 */
+	public StateSnapshot snapshot() {
+		double[] values = new double[names.length];
+		double[] series = new double[seriesCapacity];
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+			long before = cells.get(VERSION);
+			if ((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+			for (int i = 0; i < values.length; i++) {
+				values[i] = Double.longBitsToDouble(cells.get(HEADER + i));
+			}
+			int length = (int) Math.min(Math.max(cells.get(SERIES_LENGTH), 0), seriesCapacity);
+			for (int i = 0; i < length; i++) {
+				series[i] = Double.longBitsToDouble(cells.get(HEADER + names.length + i));
+			}
+			if (cells.get(VERSION) == before) {
+				return new StateSnapshot(name, before / 2, names, values,
+						length == seriesCapacity ? series : Arrays.copyOf(series, length));
+			}
+		}
+		return null;
+	}
+}
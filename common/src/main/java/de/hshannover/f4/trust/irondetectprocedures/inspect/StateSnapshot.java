@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.inspect;
+
+import java.beans.ConstructorProperties;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A consistent copy of a {@link PublishedState}. Published as composite
+ * data by {@link InspectionMXBean}.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class StateSnapshot {
+
+	private final String name;
+	private final long version;
+	private final Map<String, Double> values;
+	private final double[] series;
+
+	@ConstructorProperties({ "name", "version", "values", "series" })
+	public StateSnapshot(String name, long version, Map<String, Double> values, double[] series) {
+		this.name = name;
+		this.version = version;
+		this.values = Collections.unmodifiableMap(new LinkedHashMap<String, Double>(values));
+		this.series = series.clone();
+	}
+
+	StateSnapshot(String name, long version, String[] names, double[] values, double[] series) {
+		this.name = name;
+		this.version = version;
+		Map<String, Double> map = new LinkedHashMap<String, Double>();
+		for (int i = 0; i < names.length; i++) {
+			map.put(names[i], values[i]);
+		}
+		this.values = Collections.unmodifiableMap(map);
+		this.series = series;
+	}
+
+	/**
+	 * @return the name of the published state
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of publishes this snapshot is the result of, 0 if
+	 *         nothing was published yet
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the named values
+	 */
+	public Map<String, Double> getValues() {
+		return values;
+	}
+
+	/**
+	 * @param key
+	 * @return the named value, NaN if there is none of that name
+	 */
+	public double get(String key) {
+		Double value = values.get(key);
+		return value != null ? value.doubleValue() : Double.NaN;
+	}
+
+	/**
+	 * @return the series
+	 */
+	public double[] getSeries() {
+		return series.clone();
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Count, mean, percentiles and maximum of a {@link StripedHistogram} with
+ * power of two buckets. Percentiles are the upper bound of the bucket they
+ * fall into, so they overestimate by less than a factor of two. Published
+ * as composite data by {@link ProcedureMetricsMXBean}.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class HistogramSummary {
+
+	private final long count;
+	private final double mean;
+	private final long p50;
+	private final long p90;
+	private final long p99;
+	private final long max;
+
+	@ConstructorProperties({ "count", "mean", "p50", "p90", "p99", "max" })
+	public HistogramSummary(long count, double mean, long p50, long p90, long p99, long max) {
+		this.count = count;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.max = max;
+	}
+
+	/**
+	 * @param histogram
+	 *            with buckets as of {@link #bucketOf(long)}
+	 * @return the summary of the current content of the histogram
+	 */
+	public static HistogramSummary of(StripedHistogram histogram) {
+		long[] counts = histogram.counts();
+		long count = 0;
+		for (long c : counts) {
+			count += c;
+		}
+		long max = histogram.max();
+		double mean = count > 0 ? histogram.sum() / (double) count : 0;
+		return new HistogramSummary(count, mean, percentile(counts, count, 0.5, max),
+				percentile(counts, count, 0.9, max), percentile(counts, count, 0.99, max), max);
+	}
+
+	/**
+	 * Bucket 0 holds 0 and negative values, bucket b holds values from
+	 * 2^(b-1) to 2^b - 1.
+	 * 
+	 * @param value
+	 * @return the bucket of the value, from 0 to 63
+	 */
+	public static int bucketOf(long value) {
+		return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * @return the number of buckets needed for {@link #bucketOf(long)}
+	 */
+	public static int buckets() {
+		return 64;
+	}
+
+	private static long percentile(long[] counts, long count, double p, long max) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(p * count);
+		long seen = 0;
+		for (int b = 0; b < counts.length; b++) {
+			seen += counts[b];
+			if (seen >= rank) {
+				long upper = b == 0 ? 0 : (1L << b) - 1;
+				return Math.min(upper, max);
+			}
+		}
+		return max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public long getP50() {
+		return p50;
+	}
+
+	public long getP90() {
+		return p90;
+	}
+
+	public long getP99() {
+		return p99;
+	}
+
+	public long getMax() {
+		return max;
+	}
+}
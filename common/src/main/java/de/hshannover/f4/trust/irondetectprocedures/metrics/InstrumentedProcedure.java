@@ -0,0 +1,173 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import java.util.Calendar;
+import java.util.List;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+
+/**
+ * Wraps any procedure and records its {@link ProcedureMetrics}. The metrics
+ * are registered over JMX on setUp and unregistered on tearDown. Unsampled
+ * calculate calls cost a single striped increment.
+ * 
+ * irondetect creates procedures by class name, so a procedure jar publishes
+ * instrumented procedures with a subclass:
+ * 
+ * <pre>
+ * public class InstrumentedMean extends InstrumentedProcedure {
+ * 	public InstrumentedMean() {
+ * 		super(new Mean());
+ * 	}
+ * }
+ * </pre>
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public class InstrumentedProcedure implements Procedureable {
+
+	private final Procedureable delegate;
+	private final ProcedureMetrics metrics;
+
+	/**
+	 * @param delegate
+	 *            the procedure doing the work
+	 */
+	public InstrumentedProcedure(Procedureable delegate) {
+		this(delegate, ProcedureMetrics.DEFAULT_SAMPLING_INTERVAL);
+	}
+
+	/**
+	 * @param delegate
+	 *            the procedure doing the work
+	 * @param samplingInterval
+	 *            measure one in this many calculate calls, a power of two
+	 */
+	public InstrumentedProcedure(Procedureable delegate, int samplingInterval) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null");
+		}
+		this.delegate = delegate;
+		this.metrics = new ProcedureMetrics(delegate.getClass().getSimpleName(), samplingInterval);
+	}
+
+	@Override
+	public void setUp(String config) {
+		metrics.register();
+		long start = System.nanoTime();
+		try {
+			delegate.setUp(config);
+		} catch (RuntimeException e) {
+			metrics.recordException(e);
+			throw e;
+		} finally {
+			metrics.recordSetUp(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
+		if (!metrics.countCalculate()) {
+			try {
+				return delegate.calculate(featureSet, contextSet);
+			} catch (RuntimeException e) {
+				metrics.recordException(e);
+				throw e;
+			}
+		}
+		long start = System.nanoTime();
+		try {
+			ProcedureResult result = delegate.calculate(featureSet, contextSet);
+			if (result != null) {
+				metrics.recordResult(result.getValue());
+			}
+			return result;
+		} catch (RuntimeException e) {
+			metrics.recordException(e);
+			throw e;
+		} finally {
+			metrics.recordCalculate(System.nanoTime() - start, featureSet != null ? featureSet.size() : 0);
+		}
+	}
+
+	@Override
+	public void train(List<Feature> featureSet, List<Context> contextSet, Calendar startOfTraining,
+			Calendar endOfTraining) {
+		long start = System.nanoTime();
+		try {
+			delegate.train(featureSet, contextSet, startOfTraining, endOfTraining);
+		} catch (RuntimeException e) {
+			metrics.recordException(e);
+			throw e;
+		} finally {
+			metrics.recordTrain(System.nanoTime() - start, featureSet != null ? featureSet.size() : 0);
+		}
+	}
+
+	@Override
+	public void tearDown(String config) {
+		try {
+			delegate.tearDown(config);
+		} catch (RuntimeException e) {
+			metrics.recordException(e);
+			throw e;
+		} finally {
+			metrics.unregister();
+		}
+	}
+
+	/**
+	 * @return the wrapped procedure
+	 */
+	public Procedureable getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * @return the metrics of the wrapped procedure
+	 */
+	public ProcedureMetrics getMetrics() {
+		return metrics;
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * What one procedure instance costs: latencies of setUp, train and
+ * calculate, sizes of the feature sets, the distribution of the results and
+ * the exceptions thrown. All updates are lock free, and counters and
+ * histograms are only striped once several threads contend on them, so an
+ * instance that is called from one thread at a time stays at a few
+ * kilobytes. Timing a call costs more than most
+ * calculate calls of the statistic procedures, so calculate is measured for
+ * one in {@link #DEFAULT_SAMPLING_INTERVAL} calls by default and only
+ * counted otherwise.
+ * 
+ * The metrics can be published on the platform MBean server under
+ * <code>de.hshannover.f4.trust.irondetectprocedures:type=ProcedureMetrics,procedure=&lt;class&gt;,instance=&lt;n&gt;</code>.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public class ProcedureMetrics implements ProcedureMetricsMXBean {
+
+	private static Logger logger = Logger.getLogger(ProcedureMetrics.class);
+
+	public static final String DOMAIN = "de.hshannover.f4.trust.irondetectprocedures";
+
+	public static final int DEFAULT_SAMPLING_INTERVAL = 16;
+
+	private static final int RESULT_BUCKETS = 22;
+
+	private static final AtomicInteger instances = new AtomicInteger();
+
+	private final String procedure;
+	private final int instance;
+	private final int samplingMask;
+
+	private final StripedCounter setUpCalls = new StripedCounter();
+	private final StripedCounter trainCalls = new StripedCounter();
+	private final StripedCounter calculateCalls = new StripedCounter();
+
+	private final StripedHistogram setUpLatency = new StripedHistogram(HistogramSummary.buckets());
+	private final StripedHistogram trainLatency = new StripedHistogram(HistogramSummary.buckets());
+	private final StripedHistogram calculateLatency = new StripedHistogram(HistogramSummary.buckets());
+	private final StripedHistogram featureSetSize = new StripedHistogram(HistogramSummary.buckets());
+	private final StripedHistogram results = new StripedHistogram(RESULT_BUCKETS);
+	private final StripedCounter exceptions = new StripedCounter();
+	private volatile String lastException;
+
+	private ObjectName name;
+
+	/**
+	 * @param procedure
+	 *            class name of the procedure
+	 */
+	public ProcedureMetrics(String procedure) {
+		this(procedure, DEFAULT_SAMPLING_INTERVAL);
+	}
+
+	/**
+	 * @param procedure
+	 *            class name of the procedure
+	 * @param samplingInterval
+	 *            measure one in this many calculate calls, a power of two
+	 */
+	public ProcedureMetrics(String procedure, int samplingInterval) {
+		if (samplingInterval <= 0 || Integer.bitCount(samplingInterval) != 1) {
+			throw new IllegalArgumentException("sampling interval must be a power of two, got " + samplingInterval);
+		}
+		this.procedure = procedure;
+		this.instance = instances.getAndIncrement();
+		this.samplingMask = samplingInterval - 1;
+	}
+
+	public void recordSetUp(long nanos) {
+		setUpCalls.increment();
+		setUpLatency.record(HistogramSummary.bucketOf(nanos), nanos);
+	}
+
+	public void recordTrain(long nanos, int features) {
+		trainCalls.increment();
+		trainLatency.record(HistogramSummary.bucketOf(nanos), nanos);
+		recordFeatureSetSize(features);
+	}
+
+	/**
+	 * Counts a calculate call.
+	 * 
+	 * @return true if the call is to be measured with
+	 *         {@link #recordCalculate(long, int)} and
+	 *         {@link #recordResult(double)}
+	 */
+	public boolean countCalculate() {
+		return (calculateCalls.getAndIncrement() & samplingMask) == 0;
+	}
+
+	public void recordCalculate(long nanos, int features) {
+		calculateLatency.record(HistogramSummary.bucketOf(nanos), nanos);
+		recordFeatureSetSize(features);
+	}
+
+	/**
+	 * @param value
+	 *            of a result, normally between -1 and 1
+	 */
+	public void recordResult(double value) {
+		long tenths = Math.round(value * 10);
+		int bucket = (value >= -1 && value <= 1) ? (int) tenths + 10 : RESULT_BUCKETS - 1;
+		results.record(bucket, tenths);
+	}
+
+	public void recordException(Throwable t) {
+		exceptions.increment();
+		lastException = t.toString();
+	}
+
+	private void recordFeatureSetSize(int features) {
+		featureSetSize.record(HistogramSummary.bucketOf(features), features);
+	}
+
+	/**
+	 * Registers these metrics with the platform MBean server. Failures are
+	 * logged, monitoring must not keep a procedure from working.
+	 */
+	public synchronized void register() {
+		if (name != null) {
+			return;
+		}
+		try {
+			ObjectName candidate = new ObjectName(DOMAIN + ":type=ProcedureMetrics,procedure="
+					+ ObjectName.quote(procedure) + ",instance=" + instance);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+			name = candidate;
+		} catch (JMException e) {
+			logger.warn("could not register metrics of " + procedure + ": " + e);
+		}
+	}
+
+	/**
+	 * Removes these metrics from the platform MBean server, if registered.
+	 */
+	public synchronized void unregister() {
+		if (name == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			logger.warn("could not unregister metrics of " + procedure + ": " + e);
+		}
+		name = null;
+	}
+
+	/**
+	 * @return the name these metrics are registered under, null if not
+	 *         registered
+	 */
+	public synchronized ObjectName getObjectName() {
+		return name;
+	}
+
+	@Override
+	public String getProcedure() {
+		return procedure;
+	}
+
+	@Override
+	public long getSetUpCount() {
+		return setUpCalls.sum();
+	}
+
+	@Override
+	public long getTrainCount() {
+		return trainCalls.sum();
+	}
+
+	@Override
+	public long getCalculateCount() {
+		return calculateCalls.sum();
+	}
+
+	@Override
+	public int getSamplingInterval() {
+		return samplingMask + 1;
+	}
+
+	@Override
+	public HistogramSummary getSetUpLatency() {
+		return HistogramSummary.of(setUpLatency);
+	}
+
+	@Override
+	public HistogramSummary getTrainLatency() {
+		return HistogramSummary.of(trainLatency);
+	}
+
+	@Override
+	public HistogramSummary getCalculateLatency() {
+		return HistogramSummary.of(calculateLatency);
+	}
+
+	@Override
+	public long[] getCalculateLatencyHistogram() {
+		return calculateLatency.counts();
+	}
+
+	@Override
+	public HistogramSummary getFeatureSetSize() {
+		return HistogramSummary.of(featureSetSize);
+	}
+
+	@Override
+	public long[] getFeatureSetSizeHistogram() {
+		return featureSetSize.counts();
+	}
+
+	@Override
+	public long[] getResultHistogram() {
+		return results.counts();
+	}
+
+	@Override
+	public long getExceptionCount() {
+		return exceptions.sum();
+	}
+
+	@Override
+	public String getLastException() {
+		return lastException;
+	}
+
+	@Override
+	public void reset() {
+		setUpCalls.reset();
+		trainCalls.reset();
+		calculateCalls.reset();
+		setUpLatency.reset();
+		trainLatency.reset();
+		calculateLatency.reset();
+		featureSetSize.reset();
+		results.reset();
+		exceptions.reset();
+		lastException = null;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+/**
+ * Management interface of {@link ProcedureMetrics}. Latencies are in
+ * nanoseconds; histograms have power of two buckets as of
+ * {@link HistogramSummary#bucketOf(long)}, except for the results, see
+ * {@link #getResultHistogram()}. Call counts are exact and include calls
+ * that threw. Latencies, feature set sizes and results of calculate are
+ * recorded for one in {@link #getSamplingInterval()} calls only.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public interface ProcedureMetricsMXBean {
+
+	/**
+	 * @return the class name of the instrumented procedure
+	 */
+	String getProcedure();
+
+	long getSetUpCount();
+
+	long getTrainCount();
+
+	long getCalculateCount();
+
+	/**
+	 * @return calculate is measured once in this many calls
+	 */
+	int getSamplingInterval();
+
+	HistogramSummary getSetUpLatency();
+
+	HistogramSummary getTrainLatency();
+
+	HistogramSummary getCalculateLatency();
+
+	long[] getCalculateLatencyHistogram();
+
+	/**
+	 * @return number of features passed to calculate and train
+	 */
+	HistogramSummary getFeatureSetSize();
+
+	long[] getFeatureSetSizeHistogram();
+
+	/**
+	 * @return counts of result values rounded to tenths, index 0 for -1.0 up
+	 *         to index 20 for 1.0; index 21 counts values out of this range
+	 *         and NaN
+	 */
+	long[] getResultHistogram();
+
+	/**
+	 * @return the number of calls that threw
+	 */
+	long getExceptionCount();
+
+	/**
+	 * @return class and message of the last exception thrown, null if none
+	 */
+	String getLastException();
+
+	/**
+	 * Starts all statistics over.
+	 */
+	void reset();
+}
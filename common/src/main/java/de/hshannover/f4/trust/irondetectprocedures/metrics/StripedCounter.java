@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A counter for many writers and few readers. It starts as a single
+ * {@link AtomicLong}; the first update that loses a race against another
+ * thread spreads the counter over stripes, each on its own cache line, and
+ * from then on every thread updates the stripe it hashes to. Counters that
+ * are never contended stay small. {@link #sum()} adds up all cells and is
+ * only consistent with concurrent updates in the sense that no completed
+ * update is missed.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class StripedCounter {
+
+	private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> STRIPES = AtomicReferenceFieldUpdater
+			.newUpdater(StripedCounter.class, AtomicLongArray.class, "stripes");
+
+	private final AtomicLong base = new AtomicLong();
+	private final int mask;
+	private volatile AtomicLongArray stripes;
+
+	public StripedCounter() {
+		this.mask = Stripes.count() - 1;
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	/**
+	 * Increments the counter.
+	 * 
+	 * @return the previous value of the cell the current thread updates,
+	 *         which counts this thread's increments when it has the cell to
+	 *         itself; good enough to sample every n-th call
+	 */
+	public long getAndIncrement() {
+		AtomicLongArray striped = stripes;
+		if (striped == null) {
+			long current = base.get();
+			if (base.compareAndSet(current, current + 1)) {
+				return current;
+			}
+			striped = inflate();
+		}
+		return striped.getAndIncrement(Stripes.index(mask) * Stripes.LINE);
+	}
+
+	/**
+	 * @param delta
+	 */
+	public void add(long delta) {
+		AtomicLongArray striped = stripes;
+		if (striped == null) {
+			long current = base.get();
+			if (base.compareAndSet(current, current + delta)) {
+				return;
+			}
+			striped = inflate();
+		}
+		striped.getAndAdd(Stripes.index(mask) * Stripes.LINE, delta);
+	}
+
+	private AtomicLongArray inflate() {
+		STRIPES.compareAndSet(this, null, new AtomicLongArray((mask + 1) * Stripes.LINE));
+		return stripes;
+	}
+
+	/**
+	 * @return the sum of all updates
+	 */
+	public long sum() {
+		long sum = base.get();
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int i = 0; i < striped.length(); i += Stripes.LINE) {
+				sum += striped.get(i);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Sets the counter back to 0. Updates running concurrently may survive.
+	 */
+	public void reset() {
+		base.set(0);
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int i = 0; i < striped.length(); i += Stripes.LINE) {
+				striped.set(i, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A histogram over a fixed number of buckets for many writers, striped like
+ * {@link StripedCounter}: it starts as a single row of the bucket counts
+ * followed by the sum and the maximum of the recorded values, and is only
+ * spread over stripes of such rows once two threads collide on a bucket.
+ * Recording a value takes two atomic additions and, only for a new maximum,
+ * a compare and set. Which bucket a value belongs to is up to the caller.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class StripedHistogram {
+
+	private static final AtomicReferenceFieldUpdater<StripedHistogram, AtomicLongArray> STRIPES = AtomicReferenceFieldUpdater
+			.newUpdater(StripedHistogram.class, AtomicLongArray.class, "stripes");
+
+	private final int buckets;
+	private final int row;
+	private final int mask;
+	private final AtomicLongArray base;
+	private volatile AtomicLongArray stripes;
+
+	/**
+	 * @param buckets
+	 *            number of buckets
+	 */
+	public StripedHistogram(int buckets) {
+		if (buckets <= 0) {
+			throw new IllegalArgumentException("buckets must be positive, got " + buckets);
+		}
+		this.buckets = buckets;
+		this.row = Stripes.padded(buckets + 2);
+		this.mask = Stripes.count() - 1;
+		this.base = new AtomicLongArray(buckets + 2);
+	}
+
+	/**
+	 * @param bucket
+	 *            index of the bucket to count the value in
+	 * @param value
+	 *            added to the sum and the maximum
+	 */
+	public void record(int bucket, long value) {
+		if (bucket < 0 || bucket >= buckets) {
+			throw new IndexOutOfBoundsException("bucket " + bucket + ", buckets " + buckets);
+		}
+		AtomicLongArray striped = stripes;
+		if (striped == null) {
+			long count = base.get(bucket);
+			if (base.compareAndSet(bucket, count, count + 1)) {
+				addValue(base, 0, value);
+				return;
+			}
+			striped = inflate();
+		}
+		int offset = Stripes.index(mask) * row;
+		striped.getAndIncrement(offset + bucket);
+		addValue(striped, offset, value);
+	}
+
+	private void addValue(AtomicLongArray cells, int offset, long value) {
+		cells.getAndAdd(offset + buckets, value);
+		int max = offset + buckets + 1;
+		long current;
+		while (value > (current = cells.get(max)) && !cells.compareAndSet(max, current, value)) {
+			// retry, another thread of this row raised the maximum
+		}
+	}
+
+	private AtomicLongArray inflate() {
+		STRIPES.compareAndSet(this, null, new AtomicLongArray((mask + 1) * row));
+		return stripes;
+	}
+
+	/**
+	 * @return the number of buckets
+	 */
+	public int buckets() {
+		return buckets;
+	}
+
+	/**
+	 * @return the counts of all rows added up per bucket
+	 */
+	public long[] counts() {
+		long[] counts = new long[buckets];
+		for (int b = 0; b < buckets; b++) {
+			counts[b] = base.get(b);
+		}
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int offset = 0; offset < striped.length(); offset += row) {
+				for (int b = 0; b < buckets; b++) {
+					counts[b] += striped.get(offset + b);
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long count() {
+		long count = 0;
+		for (long c : counts()) {
+			count += c;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the sum of the recorded values
+	 */
+	public long sum() {
+		long sum = base.get(buckets);
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int offset = 0; offset < striped.length(); offset += row) {
+				sum += striped.get(offset + buckets);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * @return the largest recorded value, 0 if nothing was recorded
+	 */
+	public long max() {
+		long max = base.get(buckets + 1);
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int offset = 0; offset < striped.length(); offset += row) {
+				max = Math.max(max, striped.get(offset + buckets + 1));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Sets all buckets back to 0. Updates running concurrently may survive.
+	 */
+	public void reset() {
+		for (int i = 0; i < base.length(); i++) {
+			base.set(i, 0);
+		}
+		AtomicLongArray striped = stripes;
+		if (striped != null) {
+			for (int i = 0; i < striped.length(); i++) {
+				striped.set(i, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+/**
+ * Spreads counters over several cache lines, one stripe per group of
+ * threads, so that threads updating the same counter do not contend.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+final class Stripes {
+
+	/**
+	 * Number of longs in a cache line of 64 bytes
+	 */
+	static final int LINE = 8;
+
+	private static final int MAX_STRIPES = 16;
+
+	private Stripes() {
+	}
+
+	/**
+	 * @return the number of stripes to use, a power of two
+	 */
+	static int count() {
+		int cpus = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+		return Integer.highestOneBit(Math.max(1, cpus) * 2 - 1);
+	}
+
+	/**
+	 * @param mask
+	 *            the number of stripes minus one
+	 * @return the stripe of the current thread
+	 */
+	static int index(int mask) {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+	}
+
+	/**
+	 * @param longs
+	 * @return the number of longs rounded up to whole cache lines
+	 */
+	static int padded(int longs) {
+		return (longs + LINE - 1) / LINE * LINE;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.probe;
+
+import java.util.Calendar;
+
+/**
+ * Observes nothing.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class NoopProcedureProbe implements ProcedureProbe {
+
+	public static final NoopProcedureProbe INSTANCE = new NoopProcedureProbe();
+
+	private NoopProcedureProbe() {
+	}
+
+	@Override
+	public Object beginCalculate() {
+		return null;
+	}
+
+	@Override
+	public void endCalculate(Object span, Class<?> procedure, int features, double statistic, double expected) {
+	}
+
+	@Override
+	public Object beginTrain() {
+		return null;
+	}
+
+	@Override
+	public void endTrain(Object span, Class<?> procedure, int features, Calendar start, Calendar end) {
+	}
+
+	@Override
+	public Object beginTraceFlush() {
+		return null;
+	}
+
+	@Override
+	public void endTraceFlush(Object span, String file, long rows, long bytes) {
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.probe;
+
+import java.util.Calendar;
+
+/**
+ * Observes the procedures from the inside, e.g. to emit profiling events.
+ * Implementations are found with {@link java.util.ServiceLoader}, see
+ * {@link ProcedureProbes}.
+ * 
+ * Every observation is a span: <code>begin*</code> returns null if nobody is
+ * interested, which the matching <code>end*</code> accepts and ignores, so a
+ * disabled probe costs a call returning a constant.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public interface ProcedureProbe {
+
+	/**
+	 * @return a span for {@link #endCalculate}, null if disabled
+	 */
+	Object beginCalculate();
+
+	/**
+	 * @param span
+	 *            from {@link #beginCalculate()}, may be null
+	 * @param procedure
+	 * @param features
+	 *            size of the feature set
+	 * @param statistic
+	 *            value computed from the features
+	 * @param expected
+	 *            value the statistic is compared to
+	 */
+	void endCalculate(Object span, Class<?> procedure, int features, double statistic, double expected);
+
+	/**
+	 * @return a span for {@link #endTrain}, null if disabled
+	 */
+	Object beginTrain();
+
+	/**
+	 * @param span
+	 *            from {@link #beginTrain()}, may be null
+	 * @param procedure
+	 * @param features
+	 *            size of the training set
+	 * @param start
+	 *            start of training, may be null
+	 * @param end
+	 *            end of training, may be null
+	 */
+	void endTrain(Object span, Class<?> procedure, int features, Calendar start, Calendar end);
+
+	/**
+	 * @return a span for {@link #endTraceFlush}, null if disabled
+	 */
+	Object beginTraceFlush();
+
+	/**
+	 * @param span
+	 *            from {@link #beginTraceFlush()}, may be null
+	 * @param file
+	 *            path of the trace file
+	 * @param rows
+	 *            rows written since the last flush
+	 * @param bytes
+	 *            bytes written since the last flush
+	 */
+	void endTraceFlush(Object span, String file, long rows, long bytes);
+}
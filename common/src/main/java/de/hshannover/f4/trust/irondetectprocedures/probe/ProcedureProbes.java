@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.probe;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Looks up the {@link ProcedureProbe} once, the first implementation found
+ * by {@link ServiceLoader} on the class path of the procedures, e.g. the JFR
+ * events of the jfr module. Without one, or if it cannot be loaded, e.g.
+ * because it needs a newer Java than the one running, or with
+ * <code>-Dirondetectprocedures.probe=off</code>, nothing is observed.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class ProcedureProbes {
+
+	public static final String PROPERTY = "irondetectprocedures.probe";
+
+	private static Logger logger = Logger.getLogger(ProcedureProbes.class);
+
+	private static final ProcedureProbe PROBE = load();
+
+	private ProcedureProbes() {
+	}
+
+	/**
+	 * @return the probe for this JVM, never null
+	 */
+	public static ProcedureProbe get() {
+		return PROBE;
+	}
+
+	private static ProcedureProbe load() {
+		if ("off".equals(System.getProperty(PROPERTY))) {
+			return NoopProcedureProbe.INSTANCE;
+		}
+		try {
+			Iterator<ProcedureProbe> it = ServiceLoader.load(ProcedureProbe.class,
+					ProcedureProbes.class.getClassLoader()).iterator();
+			if (it.hasNext()) {
+				ProcedureProbe probe = it.next();
+				logger.info("procedure probe " + probe.getClass().getName());
+				return probe;
+			}
+		} catch (ServiceConfigurationError e) {
+			logger.warn("could not load the procedure probe, probing is off: " + e);
+		} catch (LinkageError e) {
+			logger.warn("could not load the procedure probe, probing is off: " + e);
+		}
+		return NoopProcedureProbe.INSTANCE;
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+
+/**
+ * A columnar, primitive view on a list of features: the parsed values, the
+ * DATETIME timestamps and a mask that marks QUANTITIVE features. Values of
+ * other feature types are stored as 0, which is what the statistic procedures
+ * always did.
+ * 
+ * A batch remembers the features it was loaded from. Loading again only
+ * compares references and parses the features behind the part that is
+ * unchanged, so several procedures evaluating the same feature set on one
+ * thread share a single parse via {@link #of(List)}, and a history that grew
+ * at its end only costs its new features. The buffers grow with the feature
+ * sets, so a batch that has seen its largest feature set does not allocate
+ * anymore, and are only shrunk when a load needs less than a quarter of
+ * them. Procedures {@link #release()} the batch of their thread on tearDown.
+ * 
+ * Timestamps are decoded lazily on the first call of {@link #timestamps()},
+ * also only for features not decoded before.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class FeatureBatch {
+
+	private static final ThreadLocal<FeatureBatch> CURRENT = new ThreadLocal<FeatureBatch>() {
+		@Override
+		protected FeatureBatch initialValue() {
+			return new FeatureBatch();
+		}
+	};
+
+	/**
+	 * Capacity below which the buffers are never shrunk
+	 */
+	private static final int MIN_TRIM_CAPACITY = 1024;
+
+	private Feature[] features = new Feature[0];
+	private double[] values = new double[0];
+	private long[] timestamps = new long[0];
+	private long[] quantitiveMask = new long[0];
+	private int size;
+	private int quantitiveCount;
+	private int timestampsLoaded;
+
+	/**
+	 * Loads the given features into the batch of the current thread.
+	 * 
+	 * @param features
+	 * @return the batch of the current thread, valid until the next call on
+	 *         this thread
+	 */
+	public static FeatureBatch of(List<Feature> features) {
+		return CURRENT.get().load(features);
+	}
+
+	/**
+	 * @param feature
+	 * @return the parsed value of a QUANTITIVE feature, 0 for all other
+	 *         feature types
+	 */
+	public static double valueOf(Feature feature) {
+		return isQuantitive(feature) ? Double.parseDouble(feature.getValue()) : 0;
+	}
+
+	/**
+	 * @param feature
+	 * @return true if the feature is of type QUANTITIVE
+	 */
+	public static boolean isQuantitive(Feature feature) {
+		return feature.getType().getTypeId() == FeatureType.QUANTITIVE;
+	}
+
+	/**
+	 * Drops the batch of the current thread, including its buffers and the
+	 * references to the last loaded features.
+	 */
+	public static void release() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Loads the given features into this batch. Only the features after the
+	 * longest prefix this batch already holds are parsed.
+	 * 
+	 * @param featureList
+	 * @return this batch
+	 */
+	public FeatureBatch load(List<Feature> featureList) {
+		int n = featureList.size();
+		int kept = sharedPrefix(featureList);
+		if (kept == n && n == size) {
+			return this;
+		}
+		int previousSize = size;
+		int count = kept == size ? quantitiveCount : countQuantitive(kept);
+		// invalidate first, a parse error must not leave a half loaded batch
+		this.size = 0;
+		this.quantitiveCount = 0;
+		this.timestampsLoaded = 0;
+		fitCapacity(n);
+
+		int i = kept;
+		for (ListIterator<Feature> it = featureList.listIterator(kept); it.hasNext(); i++) {
+			Feature f = it.next();
+			features[i] = f;
+			if (isQuantitive(f)) {
+				values[i] = Double.parseDouble(f.getValue());
+				quantitiveMask[i >>> 6] |= 1L << i;
+				count++;
+			} else {
+				values[i] = 0;
+				quantitiveMask[i >>> 6] &= ~(1L << i);
+			}
+		}
+		// drop references to features of a previous, larger load
+		for (int j = n; j < Math.min(previousSize, features.length); j++) {
+			features[j] = null;
+		}
+		this.size = n;
+		this.quantitiveCount = count;
+		this.timestampsLoaded = Math.min(this.timestampsLoaded, kept);
+		return this;
+	}
+
+	/**
+	 * @return the number of features in this batch
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of QUANTITIVE features in this batch
+	 */
+	public int quantitiveCount() {
+		return quantitiveCount;
+	}
+
+	/**
+	 * @return the values buffer, only the first {@link #size()} entries are
+	 *         valid. Do not modify.
+	 */
+	public double[] values() {
+		return values;
+	}
+
+	/**
+	 * @return the timestamp buffer in epoch millis, only the first
+	 *         {@link #size()} entries are valid. Do not modify.
+	 */
+	public long[] timestamps() {
+		for (int i = timestampsLoaded; i < size; i++) {
+			timestamps[i] = FeatureTimeOrder.timestampOf(features[i]);
+			timestampsLoaded = i + 1;
+		}
+		return timestamps;
+	}
+
+	/**
+	 * @param i
+	 * @return the value of the i-th feature
+	 */
+	public double value(int i) {
+		checkIndex(i);
+		return values[i];
+	}
+
+	/**
+	 * @param i
+	 * @return true if the i-th feature is of type QUANTITIVE
+	 */
+	public boolean isQuantitive(int i) {
+		checkIndex(i);
+		return (quantitiveMask[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * @param i
+	 * @return the i-th feature
+	 */
+	public Feature feature(int i) {
+		checkIndex(i);
+		return features[i];
+	}
+
+	/**
+	 * @return the number of leading features of the list that are loaded at
+	 *         the same position already
+	 */
+	private int sharedPrefix(List<Feature> featureList) {
+		int limit = Math.min(size, featureList.size());
+		int i = 0;
+		for (Iterator<Feature> it = featureList.iterator(); i < limit && it.hasNext(); i++) {
+			if (features[i] != it.next()) {
+				break;
+			}
+		}
+		return i;
+	}
+
+	private int countQuantitive(int n) {
+		int count = 0;
+		for (int w = 0; w < (n >>> 6); w++) {
+			count += Long.bitCount(quantitiveMask[w]);
+		}
+		if ((n & 63) != 0) {
+			count += Long.bitCount(quantitiveMask[n >>> 6] & ((1L << n) - 1));
+		}
+		return count;
+	}
+
+	/**
+	 * Grows the buffers, or shrinks them if they are far larger than needed,
+	 * keeping the entries that are reused.
+	 */
+	private void fitCapacity(int n) {
+		int capacity;
+		if (n > features.length) {
+			capacity = Math.max(n, features.length + (features.length >> 1));
+		} else if (features.length > MIN_TRIM_CAPACITY && n < (features.length >>> 2)) {
+			capacity = Math.max(2 * n, MIN_TRIM_CAPACITY);
+		} else {
+			return;
+		}
+		features = Arrays.copyOf(features, capacity);
+		values = Arrays.copyOf(values, capacity);
+		timestamps = Arrays.copyOf(timestamps, capacity);
+		quantitiveMask = Arrays.copyOf(quantitiveMask, (capacity + 63) >>> 6);
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+		}
+	}
+}
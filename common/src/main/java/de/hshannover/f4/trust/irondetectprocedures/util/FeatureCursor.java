@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.List;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * Remembers how much of a growing feature history was already consumed. The
+ * history passed to a procedure normally only grows at its end. In that case
+ * {@link #advance(List)} returns the index of the first unseen feature. If
+ * the history was changed in any other way, e.g. old features were dropped,
+ * the cursor starts over and returns 0, so the caller has to rebuild its
+ * state from scratch.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class FeatureCursor {
+
+	private int seen;
+	private Feature first;
+	private Feature last;
+
+	/**
+	 * Marks all features of the list as seen.
+	 * 
+	 * @param features
+	 * @return the index of the first feature that was not seen before, 0 if
+	 *         the caller has to start over
+	 */
+	public int advance(List<Feature> features) {
+		int n = features.size();
+		int from = seen;
+		if (seen > 0 && (n < seen || features.get(0) != first || features.get(seen - 1) != last)) {
+			from = 0;
+		}
+		seen = n;
+		first = n > 0 ? features.get(0) : null;
+		last = n > 0 ? features.get(n - 1) : null;
+		return from;
+	}
+
+	/**
+	 * Forgets everything that was seen.
+	 */
+	public void reset() {
+		seen = 0;
+		first = null;
+		last = null;
+	}
+
+	/**
+	 * @return the number of features consumed so far
+	 */
+	public int getSeen() {
+		return seen;
+	}
+}
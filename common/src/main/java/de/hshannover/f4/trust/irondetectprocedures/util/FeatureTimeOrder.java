@@ -0,0 +1,224 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.List;
+import java.util.ListIterator;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * Orders features by their DATETIME context parameter. In contrast to a
+ * {@link java.util.Comparator} that parses both timestamps for every
+ * comparison, the timestamp of each feature is decoded exactly once into an
+ * epoch-millis sort key and the sort runs on these primitive keys.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class FeatureTimeOrder {
+
+	/**
+	 * Runs shorter than this are sorted by insertion sort
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private static final ContextParamType DATETIME = new ContextParamType(ContextParamType.DATETIME);
+
+	private FeatureTimeOrder() {
+	}
+
+	/**
+	 * Decodes the DATETIME context parameter of the given feature.
+	 * 
+	 * @param feature
+	 * @return the timestamp in milliseconds since the epoch
+	 */
+	public static long timestampOf(Feature feature) {
+		return XsdDateTime.parseMillis(feature.getContextParameterByType(DATETIME).getValue());
+	}
+
+	/**
+	 * Decodes the timestamps of all features.
+	 * 
+	 * @param features
+	 * @param into buffer to fill, a new one is allocated if it is null or too
+	 *            small
+	 * @return the buffer holding the timestamp of features.get(i) at index i
+	 */
+	public static long[] timestamps(List<Feature> features, long[] into) {
+		int n = features.size();
+		long[] keys = (into != null && into.length >= n) ? into : new long[n];
+		int i = 0;
+		for (Feature f : features) {
+			keys[i++] = timestampOf(f);
+		}
+		return keys;
+	}
+
+	/**
+	 * Finds the newest feature in a single pass without reordering the list.
+	 * Of several features with the newest timestamp the last one is chosen,
+	 * which is the one {@link #sort(List)} would put at the end.
+	 * 
+	 * @param features
+	 * @return the index of the newest feature, -1 if the list is empty
+	 */
+	public static int indexOfLatest(List<Feature> features) {
+		int latest = -1;
+		long latestTime = Long.MIN_VALUE;
+		int i = 0;
+		for (Feature f : features) {
+			long t = timestampOf(f);
+			if (latest < 0 || t >= latestTime) {
+				latest = i;
+				latestTime = t;
+			}
+			i++;
+		}
+		return latest;
+	}
+
+	/**
+	 * Sorts the given list in place, oldest feature first. The sort is stable,
+	 * just like {@link java.util.Collections#sort(List)}, and every timestamp
+	 * is parsed only once.
+	 * 
+	 * @param features
+	 */
+	public static void sort(List<Feature> features) {
+		int n = features.size();
+		if (n < 2) {
+			return;
+		}
+		long[] keys = timestamps(features, null);
+		if (isSorted(keys, n)) {
+			return;
+		}
+		Feature[] items = features.toArray(new Feature[n]);
+		sort(keys, items, n);
+
+		ListIterator<Feature> it = features.listIterator();
+		for (int i = 0; i < n; i++) {
+			it.next();
+			it.set(items[i]);
+		}
+	}
+
+	/**
+	 * Stable sort of keys[0..n) that applies the same permutation to items.
+	 * 
+	 * @param keys
+	 * @param items
+	 * @param n
+	 */
+	static <T> void sort(long[] keys, T[] items, int n) {
+		// sort small runs first, then merge them bottom-up
+		for (int lo = 0; lo < n; lo += INSERTION_SORT_THRESHOLD) {
+			insertionSort(keys, items, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, n));
+		}
+		if (n <= INSERTION_SORT_THRESHOLD) {
+			return;
+		}
+
+		long[] srcKeys = keys;
+		long[] dstKeys = new long[n];
+		Object[] srcItems = items;
+		Object[] dstItems = new Object[n];
+
+		for (int width = INSERTION_SORT_THRESHOLD; width < n; width <<= 1) {
+			for (int lo = 0; lo < n; lo += width << 1) {
+				int mid = Math.min(lo + width, n);
+				int hi = Math.min(lo + (width << 1), n);
+				merge(srcKeys, srcItems, dstKeys, dstItems, lo, mid, hi);
+			}
+			long[] tk = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = tk;
+			Object[] ti = srcItems;
+			srcItems = dstItems;
+			dstItems = ti;
+		}
+
+		if (srcKeys != keys) {
+			System.arraycopy(srcKeys, 0, keys, 0, n);
+			System.arraycopy(srcItems, 0, items, 0, n);
+		}
+	}
+
+	private static boolean isSorted(long[] keys, int n) {
+		for (int i = 1; i < n; i++) {
+			if (keys[i - 1] > keys[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static <T> void insertionSort(long[] keys, T[] items, int lo, int hi) {
+		for (int i = lo + 1; i < hi; i++) {
+			long key = keys[i];
+			T item = items[i];
+			int j = i - 1;
+			while (j >= lo && keys[j] > key) {
+				keys[j + 1] = keys[j];
+				items[j + 1] = items[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			items[j + 1] = item;
+		}
+	}
+
+	private static void merge(long[] srcKeys, Object[] srcItems, long[] dstKeys, Object[] dstItems, int lo, int mid, int hi) {
+		int i = lo;
+		int j = mid;
+		for (int k = lo; k < hi; k++) {
+			// take from the left run on ties to keep the sort stable
+			if (j >= hi || (i < mid && srcKeys[i] <= srcKeys[j])) {
+				dstKeys[k] = srcKeys[i];
+				dstItems[k] = srcItems[i++];
+			} else {
+				dstKeys[k] = srcKeys[j];
+				dstItems[k] = srcItems[j++];
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.Iterator;
+import java.util.List;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * Keeps track of the newest feature of a growing history. As long as the
+ * history only grows at its end, each call only decodes the timestamps of
+ * the features added since the last call, otherwise it falls back to a full
+ * pass of {@link FeatureTimeOrder#indexOfLatest(List)}. The list is never
+ * reordered.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class LatestFeature {
+
+	private final FeatureCursor cursor = new FeatureCursor();
+	private int index = -1;
+	private long timestamp;
+
+	/**
+	 * @param features
+	 * @return the index of the newest feature, the last one of several with
+	 *         the same timestamp, or -1 if the list is empty
+	 */
+	public int indexIn(List<Feature> features) {
+		int from = cursor.advance(features);
+		if (from == 0) {
+			index = -1;
+		}
+		Iterator<Feature> it = features.listIterator(from);
+		for (int i = from; it.hasNext(); i++) {
+			long t = FeatureTimeOrder.timestampOf(it.next());
+			if (index < 0 || t >= timestamp) {
+				index = i;
+				timestamp = t;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return the timestamp of the newest feature found by the last call of
+	 *         {@link #indexIn(List)}, in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void reset() {
+		cursor.reset();
+		index = -1;
+	}
+}
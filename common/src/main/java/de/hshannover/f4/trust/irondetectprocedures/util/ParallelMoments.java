@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * Computes the {@link RunningMoments} of a feature list with fork/join. The
+ * list is split until a part holds at most <code>threshold</code> features,
+ * the parts are parsed and reduced in parallel and the partial moments are
+ * merged. Lists that are not larger than the threshold are reduced on the
+ * calling thread.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class ParallelMoments {
+
+	/**
+	 * Features per leaf task, large enough to amortize the task overhead
+	 */
+	public static final int DEFAULT_THRESHOLD = 8192;
+
+	private ParallelMoments() {
+	}
+
+	/**
+	 * Uses the pool shared by all procedures.
+	 * 
+	 * @param features
+	 * @return the moments of all feature values
+	 */
+	public static RunningMoments compute(List<Feature> features) {
+		if (features.size() <= DEFAULT_THRESHOLD) {
+			RunningMoments moments = new RunningMoments();
+			moments.addFeatures(features, 0);
+			return moments;
+		}
+		return compute(features, ForkJoinPools.shared(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * @param features
+	 * @param forkJoinPool
+	 * @param threshold maximum number of features reduced by a single task
+	 * @return the moments of all feature values
+	 */
+	public static RunningMoments compute(List<Feature> features, ForkJoinPool forkJoinPool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("threshold must be positive: " + threshold);
+		}
+		Feature[] array = features.toArray(new Feature[features.size()]);
+		return forkJoinPool.invoke(new MomentsTask(array, 0, array.length, threshold));
+	}
+
+	private static class MomentsTask extends RecursiveTask<RunningMoments> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Feature[] features;
+		private final int from;
+		private final int to;
+		private final int threshold;
+
+		MomentsTask(Feature[] features, int from, int to, int threshold) {
+			this.features = features;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected RunningMoments compute() {
+			if (to - from <= threshold) {
+				RunningMoments moments = new RunningMoments();
+				for (int i = from; i < to; i++) {
+					moments.add(FeatureBatch.valueOf(features[i]));
+				}
+				return moments;
+			}
+			int mid = (from + to) >>> 1;
+			MomentsTask left = new MomentsTask(features, from, mid, threshold);
+			left.fork();
+			RunningMoments right = new MomentsTask(features, mid, to, threshold).compute();
+			RunningMoments moments = left.join();
+			moments.merge(right);
+			return moments;
+		}
+	}
+}
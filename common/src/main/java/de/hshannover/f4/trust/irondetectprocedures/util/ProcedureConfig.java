@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the configuration string a procedure receives in
+ * <code>setUp</code>. The first token is the value expected by the policy,
+ * optionally followed by <code>key=value</code> options, all separated by
+ * semicolons:
+ * 
+ * <pre>
+ * 23
+ * 23;mode=streaming
+ * 0.5;mode=window;windowType=duration;windowSize=15m
+ * </pre>
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class ProcedureConfig {
+
+	private final double expected;
+	private final Map<String, String> options;
+
+	private ProcedureConfig(double expected, Map<String, String> options) {
+		this.expected = expected;
+		this.options = options;
+	}
+
+	/**
+	 * @param config
+	 * @return the parsed configuration
+	 * @throws NumberFormatException if the expected value is not a number
+	 * @throws IllegalArgumentException if an option is not of the form
+	 *             key=value
+	 */
+	public static ProcedureConfig parse(String config) {
+		String[] tokens = config.split(";");
+		Map<String, String> options = new HashMap<String, String>();
+		for (int i = 1; i < tokens.length; i++) {
+			String token = tokens[i].trim();
+			if (token.length() == 0) {
+				continue;
+			}
+			int eq = token.indexOf('=');
+			if (eq <= 0) {
+				throw new IllegalArgumentException("option '" + token + "' in '" + config + "' is not of the form key=value");
+			}
+			options.put(token.substring(0, eq).trim(), token.substring(eq + 1).trim());
+		}
+		return new ProcedureConfig(Double.parseDouble(tokens[0].trim()), options);
+	}
+
+	/**
+	 * @return the value expected by the policy
+	 */
+	public double getExpected() {
+		return expected;
+	}
+
+	/**
+	 * @param key
+	 * @return true if the option is present
+	 */
+	public boolean has(String key) {
+		return options.containsKey(key);
+	}
+
+	public String getString(String key, String defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	public int getInt(String key, int defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
+	public double getDouble(String key, double defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = options.get(key);
+		return value == null ? defaultValue : Boolean.parseBoolean(value);
+	}
+
+	/**
+	 * Reads a duration like <code>90s</code>, <code>15m</code>,
+	 * <code>2h</code> or <code>7d</code>. A plain number counts seconds.
+	 * 
+	 * @param key
+	 * @param defaultMillis
+	 * @return the duration in milliseconds
+	 */
+	public long getDurationMillis(String key, long defaultMillis) {
+		String value = options.get(key);
+		if (value == null) {
+			return defaultMillis;
+		}
+		long unit = 1000L;
+		String number = value;
+		switch (value.charAt(value.length() - 1)) {
+		case 's':
+			number = value.substring(0, value.length() - 1);
+			break;
+		case 'm':
+			unit = 60 * 1000L;
+			number = value.substring(0, value.length() - 1);
+			break;
+		case 'h':
+			unit = 60 * 60 * 1000L;
+			number = value.substring(0, value.length() - 1);
+			break;
+		case 'd':
+			unit = XsdDateTime.MILLIS_PER_DAY;
+			number = value.substring(0, value.length() - 1);
+			break;
+		default:
+			break;
+		}
+		return Long.parseLong(number.trim()) * unit;
+	}
+
+	@Override
+	public String toString() {
+		return expected + (options.isEmpty() ? "" : " " + options);
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.Iterator;
+import java.util.List;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ * Running count, mean and sum of squared deviations (M2) after Welford. Each
+ * value is taken in with O(1) work and memory, so the mean and variance of a
+ * growing history can be kept up to date without rescanning it.
+ * 
+ * Partial moments of disjoint parts of a data set can be combined with
+ * {@link #merge(RunningMoments)}, which is what {@link ParallelMoments} uses
+ * to reduce large training sets on several cores.
+ * 
+ * The results match {@link org.apache.commons.math3.stat.StatUtils#mean} and
+ * {@link org.apache.commons.math3.stat.StatUtils#variance} (bias corrected):
+ * NaN for no values and a variance of 0 for a single value.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class RunningMoments {
+
+	private long n;
+	private double mean;
+	private double m2;
+
+	/**
+	 * @param x
+	 */
+	public void add(double x) {
+		n++;
+		double delta = x - mean;
+		mean += delta / n;
+		m2 += delta * (x - mean);
+	}
+
+	/**
+	 * Combines the moments of another, disjoint part of the data into this
+	 * one (Chan et al.).
+	 * 
+	 * @param other
+	 */
+	public void merge(RunningMoments other) {
+		if (other.n == 0) {
+			return;
+		}
+		if (n == 0) {
+			n = other.n;
+			mean = other.mean;
+			m2 = other.m2;
+			return;
+		}
+		long total = n + other.n;
+		double delta = other.mean - mean;
+		mean += delta * other.n / total;
+		m2 += other.m2 + delta * delta * ((double) n * other.n / total);
+		n = total;
+	}
+
+	/**
+	 * Adds the values of features.get(from) up to the end of the list. Values
+	 * of non-QUANTITIVE features count as 0, see {@link FeatureBatch}.
+	 * 
+	 * @param features
+	 * @param from
+	 */
+	public void addFeatures(List<Feature> features, int from) {
+		Iterator<Feature> it = features.listIterator(from);
+		while (it.hasNext()) {
+			add(FeatureBatch.valueOf(it.next()));
+		}
+	}
+
+	/**
+	 * Adds the features of a growing history that the cursor has not seen
+	 * yet. Starts over if the history changed in a way the cursor cannot
+	 * follow.
+	 * 
+	 * @param history
+	 * @param cursor
+	 */
+	public void addUnseen(List<Feature> history, FeatureCursor cursor) {
+		int from = cursor.advance(history);
+		if (from == 0) {
+			clear();
+		}
+		addFeatures(history, from);
+	}
+
+	public void clear() {
+		n = 0;
+		mean = 0;
+		m2 = 0;
+	}
+
+	public long getN() {
+		return n;
+	}
+
+	public double getMean() {
+		return n == 0 ? Double.NaN : mean;
+	}
+
+	public double getVariance() {
+		if (n == 0) {
+			return Double.NaN;
+		}
+		return n == 1 ? 0 : m2 / (n - 1);
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+}
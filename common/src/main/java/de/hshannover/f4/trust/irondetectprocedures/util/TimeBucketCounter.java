@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.Arrays;
+
+/**
+ * Event counts for the most recent time buckets, e.g. epoch days, in a
+ * primitive ring indexed by bucket number. Counting an event and looking up
+ * a bucket are O(1). When a newer bucket is counted, the ring rolls over and
+ * the buckets that fall out of it are forgotten, so a bucket that has not
+ * seen any event yet, like a new day after midnight, reads as 0.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class TimeBucketCounter {
+
+	private final int[] counts;
+	private long newest = Long.MIN_VALUE;
+	private long dropped;
+
+	/**
+	 * @param capacity number of most recent buckets kept
+	 */
+	public TimeBucketCounter(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.counts = new int[capacity];
+	}
+
+	/**
+	 * Counts one event in the given bucket. Events in buckets that are older
+	 * than the ring holds are only counted as dropped.
+	 * 
+	 * @param bucket
+	 */
+	public void increment(long bucket) {
+		add(bucket, 1);
+	}
+
+	/**
+	 * Counts n events in the given bucket.
+	 * 
+	 * @param bucket
+	 * @param n
+	 */
+	public void add(long bucket, int n) {
+		if (newest == Long.MIN_VALUE) {
+			newest = bucket;
+		} else if (bucket > newest) {
+			// forget the buckets the ring rolls over
+			long steps = Math.min(bucket - newest, counts.length);
+			for (long b = bucket - steps + 1; b <= bucket; b++) {
+				counts[slot(b)] = 0;
+			}
+			newest = bucket;
+		} else if (bucket <= newest - counts.length) {
+			dropped += n;
+			return;
+		}
+		counts[slot(bucket)] += n;
+	}
+
+	/**
+	 * @param bucket
+	 * @return the number of events counted in the bucket, 0 if it is not
+	 *         held by the ring
+	 */
+	public int get(long bucket) {
+		if (newest == Long.MIN_VALUE || bucket > newest || bucket <= newest - counts.length) {
+			return 0;
+		}
+		return counts[slot(bucket)];
+	}
+
+	/**
+	 * @return the newest bucket counted, Long.MIN_VALUE if there was none
+	 */
+	public long getNewest() {
+		return newest;
+	}
+
+	/**
+	 * @return events that were too old for the ring
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	public int capacity() {
+		return counts.length;
+	}
+
+	public void clear() {
+		Arrays.fill(counts, 0);
+		newest = Long.MIN_VALUE;
+		dropped = 0;
+	}
+
+	private int slot(long bucket) {
+		int slot = (int) (bucket % counts.length);
+		return slot < 0 ? slot + counts.length : slot;
+	}
+}
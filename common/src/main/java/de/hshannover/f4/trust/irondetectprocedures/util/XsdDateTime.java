@@ -0,0 +1,292 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import java.util.TimeZone;
+
+/**
+ * Allocation free parser for xsd:dateTime strings as they are used in the
+ * DATETIME context parameter of a feature, e.g.
+ * <code>2013-01-31T13:37:00.123+01:00</code>. The string is decoded straight
+ * into epoch time without creating Calendar or Date instances. Timestamps
+ * without a timezone are interpreted in the default timezone, just like
+ * {@link de.hshannover.f4.trust.irondetect.util.Helper#getXsdStringAsCalendar(String)}
+ * does.
+ * 
+ * Besides parsing, this class offers epoch-day arithmetic that replaces the
+ * Calendar based <code>isSameDay</code> and <code>durationInDays</code>
+ * helpers of the procedures.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public final class XsdDateTime {
+
+	public static final long MILLIS_PER_DAY = 86400000L;
+
+	/**
+	 * The default timezone, captured once because
+	 * {@link TimeZone#getDefault()} returns a new clone on every call.
+	 */
+	private static final TimeZone LOCAL = TimeZone.getDefault();
+
+	private XsdDateTime() {
+	}
+
+	/**
+	 * @param s an xsd:dateTime string
+	 * @return milliseconds since the epoch
+	 * @throws IllegalArgumentException if s is not a valid xsd:dateTime
+	 */
+	public static long parseMillis(CharSequence s) {
+		int len = s.length();
+		int pos = 0;
+
+		// year, may be negative and longer than four digits
+		boolean negativeYear = false;
+		if (pos < len && s.charAt(pos) == '-') {
+			negativeYear = true;
+			pos++;
+		}
+		int yearStart = pos;
+		long year = 0;
+		while (pos < len && isDigit(s.charAt(pos))) {
+			year = year * 10 + (s.charAt(pos++) - '0');
+		}
+		if (pos - yearStart < 4) {
+			throw invalid(s);
+		}
+		if (negativeYear) {
+			year = -year;
+		}
+
+		expect(s, pos++, '-');
+		int month = digits2(s, pos);
+		pos += 2;
+		expect(s, pos++, '-');
+		int day = digits2(s, pos);
+		pos += 2;
+		expect(s, pos++, 'T');
+		int hour = digits2(s, pos);
+		pos += 2;
+		expect(s, pos++, ':');
+		int minute = digits2(s, pos);
+		pos += 2;
+		expect(s, pos++, ':');
+		int second = digits2(s, pos);
+		pos += 2;
+
+		// fractional seconds, everything beyond milliseconds is truncated
+		int millis = 0;
+		if (pos < len && s.charAt(pos) == '.') {
+			pos++;
+			int fractionStart = pos;
+			int scale = 100;
+			while (pos < len && isDigit(s.charAt(pos))) {
+				millis += (s.charAt(pos++) - '0') * scale;
+				scale /= 10;
+			}
+			if (pos == fractionStart) {
+				throw invalid(s);
+			}
+		}
+
+		if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || minute > 59 || second > 59
+				|| hour > 24 || (hour == 24 && (minute != 0 || second != 0 || millis != 0))) {
+			throw invalid(s);
+		}
+
+		long localMillis = daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * 3600000L + minute * 60000L
+				+ second * 1000L + millis;
+
+		// timezone
+		if (pos == len) {
+			return toUtc(localMillis, LOCAL);
+		}
+		char c = s.charAt(pos++);
+		if (c == 'Z') {
+			if (pos != len) {
+				throw invalid(s);
+			}
+			return localMillis;
+		}
+		if ((c != '+' && c != '-') || len - pos != 5) {
+			throw invalid(s);
+		}
+		int offsetHours = digits2(s, pos);
+		expect(s, pos + 2, ':');
+		int offsetMinutes = digits2(s, pos + 3);
+		if (offsetHours > 14 || offsetMinutes > 59) {
+			throw invalid(s);
+		}
+		long offset = offsetHours * 3600000L + offsetMinutes * 60000L;
+		return c == '+' ? localMillis - offset : localMillis + offset;
+	}
+
+	/**
+	 * @param s an xsd:dateTime string
+	 * @return seconds since the epoch, truncated like
+	 *         <code>Date.getTime() / 1000L</code>
+	 * @throws IllegalArgumentException if s is not a valid xsd:dateTime
+	 */
+	public static long parseSeconds(CharSequence s) {
+		return parseMillis(s) / 1000L;
+	}
+
+	/**
+	 * @param millis milliseconds since the epoch
+	 * @return the number of the day in the default timezone, counted from
+	 *         1970-01-01
+	 */
+	public static long epochDay(long millis) {
+		return epochDay(millis, LOCAL);
+	}
+
+	/**
+	 * @param millis milliseconds since the epoch
+	 * @param zone
+	 * @return the number of the day in the given timezone, counted from
+	 *         1970-01-01
+	 */
+	public static long epochDay(long millis, TimeZone zone) {
+		return floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Splits the local time line into buckets of equal length, starting at
+	 * 1970-01-01T00:00 local time. With a length that divides a day, bucket
+	 * boundaries fall on the same wall clock times every day.
+	 * 
+	 * @param millis milliseconds since the epoch
+	 * @param bucketMillis
+	 * @return the number of the bucket in the default timezone
+	 */
+	public static long localBucket(long millis, long bucketMillis) {
+		return floorDiv(millis + LOCAL.getOffset(millis), bucketMillis);
+	}
+
+	/**
+	 * Calculates the duration in days from start to end, both inclusive.
+	 * Example: 1.1.2011 to 5.1.2011 would return 5.
+	 * 
+	 * @param startMillis
+	 * @param endMillis
+	 * @return the number of days or 0 if start is after end
+	 */
+	public static int durationInDays(long startMillis, long endMillis) {
+		if (startMillis > endMillis) {
+			return 0;
+		}
+		return (int) (epochDay(endMillis) - epochDay(startMillis) + 1);
+	}
+
+	/**
+	 * Days since 1970-01-01 in the proleptic Gregorian calendar.
+	 * 
+	 * @param year
+	 * @param month 1 to 12
+	 * @param day 1 to 31
+	 * @return
+	 */
+	static long daysFromCivil(long year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	static long floorDiv(long x, long y) {
+		long q = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) {
+			q--;
+		}
+		return q;
+	}
+
+	private static long toUtc(long localMillis, TimeZone zone) {
+		// guess with the raw offset first, then correct for daylight saving
+		int offset = zone.getOffset(localMillis - zone.getRawOffset());
+		long utc = localMillis - offset;
+		int actual = zone.getOffset(utc);
+		if (actual != offset) {
+			// wall time in a daylight saving gap, use the offset before the
+			// transition like GregorianCalendar does
+			utc = localMillis - actual;
+		}
+		return utc;
+	}
+
+	private static int daysInMonth(long year, int month) {
+		switch (month) {
+		case 2:
+			boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+			return leap ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static int digits2(CharSequence s, int pos) {
+		if (pos + 1 >= s.length() || !isDigit(s.charAt(pos)) || !isDigit(s.charAt(pos + 1))) {
+			throw invalid(s);
+		}
+		return (s.charAt(pos) - '0') * 10 + (s.charAt(pos + 1) - '0');
+	}
+
+	private static void expect(CharSequence s, int pos, char c) {
+		if (pos >= s.length() || s.charAt(pos) != c) {
+			throw invalid(s);
+		}
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static IllegalArgumentException invalid(CharSequence s) {
+		return new IllegalArgumentException("not a valid xsd:dateTime: " + s);
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.inspect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetectprocedures.metrics.ProcedureMetrics;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class PublishedStateTest {
+
+    private static final String[] NAMES = { "a", "b", "c" };
+
+    @Test
+    public void testSnapshotBeforePublish() {
+        StateSnapshot snapshot = new PublishedState("test", NAMES, 4).snapshot();
+
+        assertEquals(0, snapshot.getVersion());
+        assertEquals(0, snapshot.get("a"), 0);
+        assertEquals(0, snapshot.getSeries().length);
+        assertTrue(Double.isNaN(snapshot.get("unknown")));
+    }
+
+    @Test
+    public void testSnapshotSeesLastPublish() {
+        PublishedState state = new PublishedState("test", NAMES, 4);
+        publish(state, 1);
+        publish(state, 2);
+
+        StateSnapshot snapshot = state.snapshot();
+
+        assertTrue(snapshot.getName().startsWith("test#"));
+        assertEquals(2, snapshot.getVersion());
+        assertEquals(2, snapshot.get("a"), 0);
+        assertEquals(3, snapshot.get("c"), 0);
+        assertArrayEquals(new double[] { 2, 2, 2, 2 }, snapshot.getSeries(), 0);
+    }
+
+    @Test
+    public void testPublishWhilePublishingIsSkipped() {
+        PublishedState state = new PublishedState("test", NAMES, 0);
+
+        assertTrue(state.beginPublish());
+        assertFalse(state.beginPublish());
+        state.put(0, true);
+        state.endPublish();
+
+        assertEquals(1, state.snapshot().get("a"), 0);
+        assertTrue(state.beginPublish());
+    }
+
+    @Test
+    public void testPublishExpectation() {
+        PublishedState state = new PublishedState("test", PublishedState.expectation("extra"), 0);
+        assertTrue(state.beginPublish(1, 2, 3, 4, true));
+        state.put(PublishedState.FIRST_EXTRA, 5);
+        state.endPublish();
+        state.publish(Double.NaN, 6, 6, 4, true);
+
+        StateSnapshot snapshot = state.snapshot();
+
+        assertEquals(2, snapshot.getVersion());
+        assertTrue(Double.isNaN(snapshot.get("statistic")));
+        assertEquals(6, snapshot.get("expected"), 0);
+        assertEquals(6, snapshot.get("trained"), 0);
+        assertEquals(4, snapshot.get("expectedByPolicy"), 0);
+        assertEquals(1, snapshot.get("trainingDone"), 0);
+        assertEquals(5, snapshot.get("extra"), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSeriesBeyondCapacity() {
+        new PublishedState("test", NAMES, 2).putSeries(2, 0);
+    }
+
+    @Test
+    public void testReadersNeverSeeTornState() throws InterruptedException {
+        final PublishedState state = new PublishedState("test", NAMES, 8);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger torn = new AtomicInteger();
+        final AtomicInteger reads = new AtomicInteger();
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread() {
+                @Override
+                public void run() {
+                    while (running.get()) {
+                        StateSnapshot snapshot = state.snapshot();
+                        if (snapshot == null || snapshot.getVersion() == 0) {
+                            continue;
+                        }
+                        reads.incrementAndGet();
+                        double a = snapshot.get("a");
+                        if (snapshot.get("b") != a || snapshot.get("c") != a + 1
+                                || snapshot.getSeries().length != 2 * ((int) a % 5)) {
+                            torn.incrementAndGet();
+                        }
+                        for (double v : snapshot.getSeries()) {
+                            if (v != a) {
+                                torn.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            };
+            readers[r].start();
+        }
+
+        for (int i = 1; i <= 200000; i++) {
+            publish(state, i);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(0, torn.get());
+        assertTrue(reads.get() > 0);
+    }
+
+    @Test
+    public void testRegistryOverJmx() throws Exception {
+        PublishedState state = new PublishedState("test", NAMES, 4);
+        InspectionRegistry.register(state);
+        publish(state, 3);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ProcedureMetrics.DOMAIN + ":type=Inspection");
+        assertTrue(server.isRegistered(name));
+        CompositeData snapshot = (CompositeData) server.invoke(name, "snapshot", new Object[] { state.getName() },
+                new String[] { String.class.getName() });
+        assertNotNull(snapshot);
+        assertEquals(1L, snapshot.get("version"));
+        assertArrayEquals(new double[] { 3, 3, 3, 3 }, (double[]) snapshot.get("series"), 0);
+        assertEquals(3, InspectionRegistry.get().snapshot(state.getName()).get("b"), 0);
+
+        InspectionRegistry.unregister(state);
+        assertNull(InspectionRegistry.get().snapshot(state.getName()));
+        assertFalse(InspectionRegistry.get().getNames().contains(state.getName()));
+    }
+
+    /**
+     * Publishes a = b = i, c = i + 1 and a series of up to (i % 5) pairs of i.
+     */
+    private static void publish(PublishedState state, int i) {
+        if (state.beginPublish()) {
+            state.put(0, i);
+            state.put(1, i);
+            state.put(2, i + 1);
+            int n = Math.min(2 * (i % 5), state.getSeriesCapacity());
+            for (int j = 0; j < n; j++) {
+                state.putSeries(j, i);
+            }
+            state.setSeriesLength(n);
+            state.endPublish();
+        }
+    }
+}
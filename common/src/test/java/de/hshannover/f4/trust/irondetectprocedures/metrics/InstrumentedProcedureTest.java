@@ -0,0 +1,254 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class InstrumentedProcedureTest {
+
+    /**
+     * Returns the value of the newest feature, fails on an empty feature set.
+     */
+    private static class Latest implements Procedureable {
+
+        @Override
+        public void setUp(String config) {
+        }
+
+        @Override
+        public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
+            if (featureSet.isEmpty()) {
+                throw new IllegalStateException("no features");
+            }
+            return new ProcedureResult(Double.parseDouble(featureSet.get(featureSet.size() - 1).getValue()));
+        }
+
+        @Override
+        public void train(List<Feature> featureSet, List<Context> contextSet, Calendar start, Calendar end) {
+        }
+
+        @Override
+        public void tearDown(String config) {
+        }
+    }
+
+    private static Feature feature(String value) {
+        return new Feature("feature", value, new FeatureType(FeatureType.QUANTITIVE), new ArrayList<ContextParameter>());
+    }
+
+    @Test
+    public void testRecordsCallsResultsAndExceptions() {
+        InstrumentedProcedure procedure = new InstrumentedProcedure(new Latest(), 1);
+        List<Feature> features = new ArrayList<Feature>();
+        List<Context> contexts = new ArrayList<Context>();
+        procedure.setUp("1");
+        try {
+            features.add(feature("1"));
+            features.add(feature("-0.5"));
+            assertEquals(-0.5, procedure.calculate(features, contexts).getValue(), 0);
+            features.add(feature("1"));
+            procedure.calculate(features, contexts);
+            features.add(feature("7"));
+            procedure.calculate(features, contexts);
+            procedure.train(features, contexts, null, null);
+            try {
+                procedure.calculate(new ArrayList<Feature>(), contexts);
+                fail();
+            } catch (IllegalStateException e) {
+                // expected
+            }
+
+            ProcedureMetrics metrics = procedure.getMetrics();
+            assertEquals("Latest", metrics.getProcedure());
+            assertEquals(1, metrics.getSetUpCount());
+            assertEquals(4, metrics.getCalculateCount());
+            assertEquals(1, metrics.getSetUpLatency().getCount());
+            assertEquals(1, metrics.getTrainLatency().getCount());
+            assertEquals(4, metrics.getCalculateLatency().getCount());
+            assertTrue(metrics.getCalculateLatency().getMax() > 0);
+
+            // 2, 3, 4 and 0 features on calculate, 4 on train
+            assertEquals(5, metrics.getFeatureSetSize().getCount());
+            assertEquals(4, metrics.getFeatureSetSize().getMax());
+            assertEquals(13 / 5.0, metrics.getFeatureSetSize().getMean(), 1e-9);
+
+            long[] results = metrics.getResultHistogram();
+            assertEquals(1, results[5]);
+            assertEquals(1, results[20]);
+            assertEquals(1, results[21]);
+
+            assertEquals(1, metrics.getExceptionCount());
+            assertTrue(metrics.getLastException().contains("no features"));
+
+            metrics.reset();
+            assertEquals(0, metrics.getCalculateLatency().getCount());
+            assertNull(metrics.getLastException());
+        } finally {
+            procedure.tearDown("1");
+        }
+    }
+
+    @Test
+    public void testSamplesCalculate() {
+        InstrumentedProcedure procedure = new InstrumentedProcedure(new Latest(), 4);
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(feature("0"));
+        for (int i = 0; i < 100; i++) {
+            procedure.calculate(features, new ArrayList<Context>());
+        }
+        ProcedureMetrics metrics = procedure.getMetrics();
+        assertEquals(100, metrics.getCalculateCount());
+        assertEquals(25, metrics.getCalculateLatency().getCount());
+        assertEquals(25, metrics.getResultHistogram()[10]);
+    }
+
+    @Test
+    public void testPublishedOverJmxWhileSetUp() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        InstrumentedProcedure procedure = new InstrumentedProcedure(new Latest(), 1);
+        procedure.setUp("1");
+        ObjectName name = procedure.getMetrics().getObjectName();
+        assertNotNull(name);
+        assertTrue(server.isRegistered(name));
+
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(feature("0"));
+        procedure.calculate(features, new ArrayList<Context>());
+        CompositeData latency = (CompositeData) server.getAttribute(name, "CalculateLatency");
+        assertEquals(1L, latency.get("count"));
+        assertEquals(1L, server.getAttribute(name, "CalculateCount"));
+
+        procedure.tearDown("1");
+        assertNull(procedure.getMetrics().getObjectName());
+        assertTrue(!server.isRegistered(name));
+    }
+
+    @Test
+    public void testSummaryPercentiles() {
+        StripedHistogram histogram = new StripedHistogram(HistogramSummary.buckets());
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(HistogramSummary.bucketOf(v), v);
+        }
+        HistogramSummary summary = HistogramSummary.of(histogram);
+        assertEquals(1000, summary.getCount());
+        assertEquals(500.5, summary.getMean(), 1e-9);
+        assertEquals(511, summary.getP50());
+        assertEquals(1000, summary.getP90());
+        assertEquals(1000, summary.getMax());
+        assertEquals(0, HistogramSummary.bucketOf(0));
+        assertEquals(63, HistogramSummary.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testStripedCounterFromManyThreads() throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100000; i++) {
+                        counter.increment();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(400000, counter.sum());
+        counter.reset();
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    public void testStripedHistogramFromManyThreads() throws InterruptedException {
+        final StripedHistogram histogram = new StripedHistogram(4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int bucket = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 1; i <= 100000; i++) {
+                        histogram.record(bucket, i % 2 == 0 ? bucket : 0);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(400000, histogram.count());
+        assertEquals(50000L * (0 + 1 + 2 + 3), histogram.sum());
+        assertEquals(3, histogram.max());
+        assertEquals(100000, histogram.counts()[2]);
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class FeatureBatchTest {
+
+    @Test
+    public void testColumns() {
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(FeatureTimeOrderTest.feature("1.5", 2000L));
+        features.add(FeatureTimeOrderTest.feature("text", 1000L, FeatureType.QUALIFIED));
+        features.add(FeatureTimeOrderTest.feature("-3", 3000L));
+
+        FeatureBatch batch = new FeatureBatch().load(features);
+
+        assertEquals(3, batch.size());
+        assertEquals(2, batch.quantitiveCount());
+        assertEquals(1.5, batch.value(0), 0);
+        assertEquals(0, batch.value(1), 0);
+        assertEquals(-3, batch.value(2), 0);
+        assertTrue(batch.isQuantitive(0));
+        assertFalse(batch.isQuantitive(1));
+        assertEquals(1000L, batch.timestamps()[1]);
+        assertEquals(3000L, batch.timestamps()[2]);
+    }
+
+    @Test
+    public void testReloadOnlyWhenFeaturesChange() {
+        List<Feature> features = FeatureTimeOrderTest.randomFeatures(100, 1);
+        FeatureBatch batch = FeatureBatch.of(features);
+        double[] values = batch.values();
+
+        // same features in a different list instance, nothing is parsed
+        assertSame(batch, FeatureBatch.of(new ArrayList<Feature>(features)));
+        assertSame(values, batch.values());
+
+        // a smaller set reuses the buffers
+        List<Feature> fewer = new ArrayList<Feature>(features.subList(0, 10));
+        fewer.set(0, FeatureTimeOrderTest.feature("42", 0L));
+        FeatureBatch.of(fewer);
+        assertSame(values, batch.values());
+        assertEquals(10, batch.size());
+        assertEquals(42, batch.value(0), 0);
+        assertSame(fewer.get(9), batch.feature(9));
+
+        FeatureBatch.release();
+    }
+
+    @Test
+    public void testGrownHistoryKeepsLoadedPrefix() {
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(FeatureTimeOrderTest.feature("1", 1000L));
+        features.add(FeatureTimeOrderTest.feature("text", 2000L, FeatureType.QUALIFIED));
+        FeatureBatch batch = new FeatureBatch().load(features);
+        assertEquals(2000L, batch.timestamps()[1]);
+
+        for (int i = 3; i <= 100; i++) {
+            features.add(FeatureTimeOrderTest.feature(String.valueOf(i), i * 1000L));
+            batch.load(features);
+        }
+
+        assertEquals(100, batch.size());
+        assertEquals(99, batch.quantitiveCount());
+        assertFalse(batch.isQuantitive(1));
+        assertTrue(batch.isQuantitive(99));
+        assertEquals(100, batch.value(99), 0);
+        assertEquals(1000L, batch.timestamps()[0]);
+        assertEquals(100000L, batch.timestamps()[99]);
+
+        // a changed feature in the middle reparses from there on
+        features.set(50, FeatureTimeOrderTest.feature("text", 51000L, FeatureType.QUALIFIED));
+        batch.load(features);
+        assertEquals(98, batch.quantitiveCount());
+        assertEquals(0, batch.value(50), 0);
+        assertEquals(51000L, batch.timestamps()[50]);
+
+        // dropping the oldest feature reparses everything
+        features.remove(0);
+        batch.load(features);
+        assertEquals(99, batch.size());
+        assertEquals(97, batch.quantitiveCount());
+        assertEquals(2000L, batch.timestamps()[0]);
+    }
+
+    @Test
+    public void testFailedLoadLeavesNoStaleCount() {
+        List<Feature> good = new ArrayList<Feature>();
+        good.add(FeatureTimeOrderTest.feature("1", 1000L));
+        good.add(FeatureTimeOrderTest.feature("2", 2000L));
+        List<Feature> bad = new ArrayList<Feature>(good);
+        bad.add(FeatureTimeOrderTest.feature("not a number", 3000L));
+        FeatureBatch batch = new FeatureBatch().load(good);
+
+        try {
+            batch.load(bad);
+            fail("expected a NumberFormatException");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+        assertEquals(0, batch.size());
+
+        batch.load(good);
+        assertEquals(2, batch.size());
+        assertEquals(2, batch.quantitiveCount());
+        assertEquals(2000L, batch.timestamps()[1]);
+    }
+
+    @Test
+    public void testBuffersShrinkAfterLargeLoad() {
+        List<Feature> features = FeatureTimeOrderTest.randomFeatures(10000, 1);
+        FeatureBatch batch = new FeatureBatch().load(features);
+        assertTrue(batch.values().length >= 10000);
+
+        List<Feature> few = new ArrayList<Feature>(features.subList(0, 10));
+        batch.load(few);
+        assertEquals(10, batch.size());
+        assertTrue(batch.values().length < 10000);
+        assertSame(features.get(9), batch.feature(9));
+        assertEquals(FeatureBatch.valueOf(features.get(9)), batch.value(9), 0);
+
+        batch.load(features);
+        assertEquals(10000, batch.size());
+        assertEquals(FeatureBatch.valueOf(features.get(9999)), batch.value(9999), 0);
+    }
+}
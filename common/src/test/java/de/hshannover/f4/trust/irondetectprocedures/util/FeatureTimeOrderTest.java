@@ -0,0 +1,187 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+import de.hshannover.f4.trust.irondetect.util.Helper;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class FeatureTimeOrderTest {
+
+    @Test
+    public void testSortMatchesCalendarComparator() {
+        List<Feature> features = randomFeatures(1000, 42);
+        List<Feature> expected = new ArrayList<Feature>(features);
+        Collections.sort(expected, new CalendarComparator());
+
+        FeatureTimeOrder.sort(features);
+
+        for (int i = 0; i < features.size(); i++) {
+            assertSame(expected.get(i), features.get(i));
+        }
+    }
+
+    @Test
+    public void testSortIsStable() {
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 100; i++) {
+            // only ten distinct timestamps, in descending order
+            features.add(feature(String.valueOf(i), 1000000000000L - (i / 10) * 1000L));
+        }
+        List<Feature> expected = new ArrayList<Feature>(features);
+        Collections.sort(expected, new CalendarComparator());
+
+        FeatureTimeOrder.sort(features);
+
+        for (int i = 0; i < features.size(); i++) {
+            assertSame(expected.get(i), features.get(i));
+        }
+    }
+
+    @Test
+    public void testTimestamps() {
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(feature("a", 0L));
+        features.add(feature("b", 1356998400000L));
+        long[] keys = FeatureTimeOrder.timestamps(features, new long[1]);
+        assertEquals(2, keys.length);
+        assertEquals(0L, keys[0]);
+        assertEquals(1356998400000L, keys[1]);
+    }
+
+    @Test
+    public void testIndexOfLatestMatchesSort() {
+        Random random = new Random(7);
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 500; i++) {
+            // many features share the newest timestamp
+            features.add(feature(String.valueOf(i), 1300000000000L + random.nextInt(20) * 1000L));
+        }
+        List<Feature> sorted = new ArrayList<Feature>(features);
+        FeatureTimeOrder.sort(sorted);
+
+        int latest = FeatureTimeOrder.indexOfLatest(features);
+        assertSame(sorted.get(sorted.size() - 1), features.get(latest));
+        assertEquals(-1, FeatureTimeOrder.indexOfLatest(new ArrayList<Feature>()));
+    }
+
+    @Test
+    public void testLatestFeatureFollowsGrowingHistory() {
+        List<Feature> history = new ArrayList<Feature>();
+        LatestFeature latestFeature = new LatestFeature();
+        assertEquals(-1, latestFeature.indexIn(history));
+
+        history.addAll(randomFeatures(100, 1));
+        assertEquals(FeatureTimeOrder.indexOfLatest(history), latestFeature.indexIn(history));
+        history.add(feature("old", 0L));
+        assertEquals(FeatureTimeOrder.indexOfLatest(history), latestFeature.indexIn(history));
+        history.add(feature("new", 1400000000000L));
+        assertEquals(101, latestFeature.indexIn(history));
+        assertEquals(1400000000000L, latestFeature.getTimestamp());
+
+        // not a grown history, starts over
+        history.remove(0);
+        history.remove(history.size() - 1);
+        assertEquals(FeatureTimeOrder.indexOfLatest(history), latestFeature.indexIn(history));
+    }
+
+    static List<Feature> randomFeatures(int n, long seed) {
+        Random random = new Random(seed);
+        List<Feature> features = new ArrayList<Feature>(n);
+        for (int i = 0; i < n; i++) {
+            features.add(feature(String.valueOf(i), 1300000000000L + random.nextInt(1000000) * 1000L));
+        }
+        return features;
+    }
+
+    static Feature feature(String value, long millis) {
+        return feature(value, millis, FeatureType.QUANTITIVE);
+    }
+
+    static Feature feature(String value, long millis, int type) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        List<ContextParameter> ctxp = new ArrayList<ContextParameter>();
+        ctxp.add(new ContextParameter(new ContextParamType(ContextParamType.DATETIME), format.format(new Date(millis))));
+        return new Feature("feature", value, new FeatureType(type), ctxp);
+    }
+
+    /**
+     * The comparator the procedures used before {@link FeatureTimeOrder}.
+     */
+    static class CalendarComparator implements Comparator<Feature> {
+
+        int comparisons;
+
+        @Override
+        public int compare(Feature f1, Feature f2) {
+            comparisons++;
+            Calendar contextF1 = Helper.getXsdStringAsCalendar(f1.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
+            Calendar contextF2 = Helper.getXsdStringAsCalendar(f2.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
+            if (contextF1.before(contextF2)) {
+                return -1;
+            } else if (contextF1.after(contextF2)) {
+                return 1;
+            } else {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.Feature;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class RunningMomentsTest {
+
+    @Test
+    public void testMatchesStatUtils() {
+        Random random = new Random(3);
+        double[] values = new double[10000];
+        RunningMoments moments = new RunningMoments();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e6 + random.nextGaussian() * 10;
+            moments.add(values[i]);
+        }
+        assertEquals(StatUtils.mean(values), moments.getMean(), 1e-6);
+        assertEquals(StatUtils.variance(values), moments.getVariance(), 1e-6);
+    }
+
+    @Test
+    public void testEmptyAndSingleValue() {
+        RunningMoments moments = new RunningMoments();
+        assertTrue(Double.isNaN(moments.getMean()));
+        assertTrue(Double.isNaN(moments.getVariance()));
+        moments.add(5);
+        assertEquals(5, moments.getMean(), 0);
+        assertEquals(0, moments.getVariance(), 0);
+    }
+
+    @Test
+    public void testMerge() {
+        Random random = new Random(5);
+        double[] values = new double[1000];
+        RunningMoments left = new RunningMoments();
+        RunningMoments right = new RunningMoments();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 100;
+            (i < 300 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+        left.merge(new RunningMoments());
+        assertEquals(values.length, left.getN());
+        assertEquals(StatUtils.mean(values), left.getMean(), 1e-9);
+        assertEquals(StatUtils.variance(values), left.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<Feature> features = new ArrayList<Feature>();
+        Random random = new Random(11);
+        double[] values = new double[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1000);
+            features.add(FeatureTimeOrderTest.feature(String.valueOf(values[i]), i));
+        }
+        RunningMoments moments = ParallelMoments.compute(features, new ForkJoinPool(4), 100);
+        assertEquals(values.length, moments.getN());
+        assertEquals(StatUtils.mean(values), moments.getMean(), 1e-9);
+        assertEquals(StatUtils.variance(values), moments.getVariance(), 1e-6);
+    }
+
+    @Test
+    public void testAddUnseenFollowsGrowingHistory() {
+        List<Feature> history = new ArrayList<Feature>();
+        FeatureCursor cursor = new FeatureCursor();
+        RunningMoments moments = new RunningMoments();
+
+        for (int i = 1; i <= 10; i++) {
+            history.add(FeatureTimeOrderTest.feature(String.valueOf(i), i * 1000L));
+            moments.addUnseen(history, cursor);
+        }
+        assertEquals(10, moments.getN());
+        assertEquals(5.5, moments.getMean(), 1e-12);
+
+        // nothing new
+        moments.addUnseen(history, cursor);
+        assertEquals(10, moments.getN());
+
+        // old features dropped, the moments are rebuilt from the remaining ones
+        history.subList(0, 5).clear();
+        moments.addUnseen(history, cursor);
+        assertEquals(5, moments.getN());
+        assertEquals(8, moments.getMean(), 1e-12);
+    }
+}
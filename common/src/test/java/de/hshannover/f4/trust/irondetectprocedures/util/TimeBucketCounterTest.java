@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class TimeBucketCounterTest {
+
+    @Test
+    public void countsAndRollsOver() {
+        TimeBucketCounter counter = new TimeBucketCounter(3);
+        counter.increment(10);
+        counter.increment(10);
+        counter.increment(11);
+        assertEquals(2, counter.get(10));
+        assertEquals(1, counter.get(11));
+        assertEquals(0, counter.get(12));
+
+        // a new day starts with no events
+        counter.increment(13);
+        assertEquals(0, counter.get(10));
+        assertEquals(1, counter.get(11));
+        assertEquals(0, counter.get(12));
+        assertEquals(1, counter.get(13));
+
+        // too old for the ring
+        counter.increment(10);
+        assertEquals(1, counter.getDropped());
+        assertEquals(0, counter.get(10));
+
+        // a jump beyond the capacity forgets everything
+        counter.increment(100);
+        assertEquals(0, counter.get(13));
+        assertEquals(1, counter.get(100));
+    }
+
+    @Test
+    public void negativeBuckets() {
+        TimeBucketCounter counter = new TimeBucketCounter(4);
+        counter.increment(-3);
+        counter.increment(-1);
+        assertEquals(1, counter.get(-3));
+        assertEquals(0, counter.get(-2));
+        assertEquals(1, counter.get(-1));
+    }
+
+    @Test
+    public void matchesFullCount() {
+        Random random = new Random(3);
+        int capacity = 8;
+        TimeBucketCounter counter = new TimeBucketCounter(capacity);
+        int[] expected = new int[200];
+        long newest = 0;
+        for (int i = 0; i < 5000; i++) {
+            long bucket = Math.max(0, i / 25 - random.nextInt(4));
+            expected[(int) bucket]++;
+            newest = Math.max(newest, bucket);
+            counter.increment(bucket);
+        }
+        for (long b = newest - capacity + 1; b <= newest; b++) {
+            assertEquals(expected[(int) b], counter.get(b));
+        }
+    }
+}
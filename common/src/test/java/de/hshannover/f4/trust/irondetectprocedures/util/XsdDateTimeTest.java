@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of common, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class XsdDateTimeTest {
+
+    private static final String[] VALID = {
+        "2013-01-31T13:37:00Z",
+        "2013-01-31T13:37:00.123Z",
+        "2013-01-31T13:37:00.1+01:00",
+        "2013-01-31T13:37:00.123456-05:30",
+        "2012-02-29T23:59:59+14:00",
+        "1970-01-01T00:00:00Z",
+        "1969-12-31T23:59:59.999Z",
+        "2013-03-31T02:30:00",
+        "2013-07-15T12:00:00",
+        "2000-12-31T24:00:00Z"
+    };
+
+    private static final String[] INVALID = {
+        "", "2013-01-31", "13-01-31T13:37:00Z", "2013-1-31T13:37:00Z", "2013-02-29T13:37:00Z",
+        "2013-01-31T13:37:60Z", "2013-01-31T24:01:00Z", "2013-01-31T13:37:00.Z", "2013-01-31T13:37:00+1:00",
+        "2013-01-31T13:37:00ZZ", "2013-01-31 13:37:00Z"
+    };
+
+    @Test
+    public void testParseMatchesDatatypeFactory() throws DatatypeConfigurationException {
+        for (String s : VALID) {
+            assertEquals(s, reference(s), XsdDateTime.parseMillis(s));
+        }
+    }
+
+    @Test
+    public void testParseRandomTimestamps() throws DatatypeConfigurationException {
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            String s = String.format("%04d-%02d-%02dT%02d:%02d:%02d.%03d%s", 1900 + random.nextInt(200), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000),
+                    random.nextBoolean() ? "Z" : String.format("%s%02d:%02d", random.nextBoolean() ? "+" : "-",
+                            random.nextInt(14), random.nextInt(60)));
+            assertEquals(s, reference(s), XsdDateTime.parseMillis(s));
+        }
+    }
+
+    @Test
+    public void testParseSeconds() {
+        assertEquals(1359639420L, XsdDateTime.parseSeconds("2013-01-31T13:37:00.999Z"));
+    }
+
+    @Test
+    public void testInvalid() {
+        for (String s : INVALID) {
+            try {
+                XsdDateTime.parseMillis(s);
+                fail(s);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testEpochDay() {
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        assertEquals(0L, XsdDateTime.epochDay(0L, utc));
+        assertEquals(-1L, XsdDateTime.epochDay(-1L, utc));
+        assertEquals(15736L, XsdDateTime.epochDay(XsdDateTime.parseMillis("2013-01-31T23:59:59Z"), utc));
+        assertEquals(15737L, XsdDateTime.epochDay(XsdDateTime.parseMillis("2013-01-31T23:59:59-01:00"), utc));
+    }
+
+    @Test
+    public void testDurationInDays() {
+        Calendar start = new GregorianCalendar(2011, Calendar.JANUARY, 1, 12, 0);
+        Calendar end = new GregorianCalendar(2011, Calendar.JANUARY, 5, 8, 0);
+        assertEquals(5, XsdDateTime.durationInDays(start.getTimeInMillis(), end.getTimeInMillis()));
+        end = new GregorianCalendar(2013, Calendar.JANUARY, 1, 8, 0);
+        assertEquals(731 + 1, XsdDateTime.durationInDays(start.getTimeInMillis(), end.getTimeInMillis()));
+        assertEquals(0, XsdDateTime.durationInDays(end.getTimeInMillis(), start.getTimeInMillis()));
+    }
+
+    private static long reference(String s) throws DatatypeConfigurationException {
+        return DatatypeFactory.newInstance().newXMLGregorianCalendar(s).toGregorianCalendar().getTimeInMillis();
+    }
+}
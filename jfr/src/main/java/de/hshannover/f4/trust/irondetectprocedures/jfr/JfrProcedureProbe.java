@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of jfr, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.jfr;
+
+import java.util.Calendar;
+
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+
+/**
+ * Emits the JFR events {@link ProcedureCalculateEvent},
+ * {@link ProcedureTrainEvent} and {@link TraceFlushEvent}. Found by
+ * {@link de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes}
+ * when this jar is on the class path. While no recording has an event
+ * enabled, its span is null and nothing is allocated or timed.
+ *
+ * @author Trust@HsH
+ */
+public class JfrProcedureProbe implements ProcedureProbe {
+
+    // only asked whether the event types are enabled
+    private static final ProcedureCalculateEvent CALCULATE = new ProcedureCalculateEvent();
+    private static final ProcedureTrainEvent TRAIN = new ProcedureTrainEvent();
+    private static final TraceFlushEvent TRACE_FLUSH = new TraceFlushEvent();
+
+    @Override
+    public Object beginCalculate() {
+        if (!CALCULATE.isEnabled()) {
+            return null;
+        }
+        ProcedureCalculateEvent event = new ProcedureCalculateEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endCalculate(Object span, Class<?> procedure, int features, double statistic, double expected) {
+        if (span == null) {
+            return;
+        }
+        ProcedureCalculateEvent event = (ProcedureCalculateEvent) span;
+        event.end();
+        if (event.shouldCommit()) {
+            event.procedure = procedure;
+            event.features = features;
+            event.statistic = statistic;
+            event.expected = expected;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginTrain() {
+        if (!TRAIN.isEnabled()) {
+            return null;
+        }
+        ProcedureTrainEvent event = new ProcedureTrainEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endTrain(Object span, Class<?> procedure, int features, Calendar start, Calendar end) {
+        if (span == null) {
+            return;
+        }
+        ProcedureTrainEvent event = (ProcedureTrainEvent) span;
+        event.end();
+        if (event.shouldCommit()) {
+            event.procedure = procedure;
+            event.features = features;
+            event.trainingStart = start != null ? start.getTimeInMillis() : 0;
+            event.trainingEnd = end != null ? end.getTimeInMillis() : 0;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginTraceFlush() {
+        if (!TRACE_FLUSH.isEnabled()) {
+            return null;
+        }
+        TraceFlushEvent event = new TraceFlushEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endTraceFlush(Object span, String file, long rows, long bytes) {
+        if (span == null) {
+            return;
+        }
+        TraceFlushEvent event = (TraceFlushEvent) span;
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of jfr, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * One train call of a procedure.
+ *
+ * @author Trust@HsH
+ */
+@Name(ProcedureTrainEvent.NAME)
+@Label("Procedure Train")
+@Description("Training of an irondetect procedure")
+@Category({ "irondetect", "Procedures" })
+@StackTrace(false)
+public class ProcedureTrainEvent extends Event {
+
+    public static final String NAME = "de.hshannover.f4.trust.irondetectprocedures.ProcedureTrain";
+
+    @Label("Procedure")
+    Class<?> procedure;
+
+    @Label("Features")
+    @Description("Size of the training set")
+    int features;
+
+    @Label("Training Start")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long trainingStart;
+
+    @Label("Training End")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long trainingEnd;
+}
@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of jfr, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class JfrProcedureProbeTest {
+
+    @Test
+    public void testFoundByServiceLoader() {
+        assertTrue(ProcedureProbes.get() instanceof JfrProcedureProbe);
+    }
+
+    @Test
+    public void testNoSpanWithoutRecording() {
+        ProcedureProbe probe = new JfrProcedureProbe();
+        assertNull(probe.beginCalculate());
+        assertNull(probe.beginTrain());
+        assertNull(probe.beginTraceFlush());
+        // ending a disabled span does nothing
+        probe.endCalculate(null, JfrProcedureProbeTest.class, 1, 1, 1);
+    }
+
+    @Test
+    public void testEventsRecorded() throws IOException {
+        ProcedureProbe probe = new JfrProcedureProbe();
+        Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(1356998400000L);
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(1357084800000L);
+
+        List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        File dump = File.createTempFile("procedures", ".jfr");
+        try {
+            Recording recording = new Recording();
+            try {
+                recording.enable(ProcedureCalculateEvent.NAME).withThreshold(java.time.Duration.ZERO);
+                recording.enable(ProcedureTrainEvent.NAME).withThreshold(java.time.Duration.ZERO);
+                recording.enable(TraceFlushEvent.NAME).withThreshold(java.time.Duration.ZERO);
+                recording.start();
+
+                probe.endCalculate(probe.beginCalculate(), JfrProcedureProbeTest.class, 42, 0.5, 2);
+                probe.endTrain(probe.beginTrain(), JfrProcedureProbeTest.class, 7, start, end);
+                probe.endTraceFlush(probe.beginTraceFlush(), "trendResult.txt", 3, 192);
+
+                recording.stop();
+                recording.dump(dump.toPath());
+            } finally {
+                recording.close();
+            }
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump.toPath())) {
+                if (event.getEventType().getName().startsWith("de.hshannover.f4.trust.irondetectprocedures.")) {
+                    events.add(event);
+                }
+            }
+        } finally {
+            dump.delete();
+        }
+
+        assertEquals(3, events.size());
+        for (RecordedEvent event : events) {
+            String name = event.getEventType().getName();
+            if (name.equals(ProcedureCalculateEvent.NAME)) {
+                assertEquals(JfrProcedureProbeTest.class.getName(), event.getClass("procedure").getName());
+                assertEquals(42, event.getInt("features"));
+                assertEquals(0.5, event.getDouble("statistic"), 0);
+                assertEquals(2, event.getDouble("expected"), 0);
+            } else if (name.equals(ProcedureTrainEvent.NAME)) {
+                assertEquals(7, event.getInt("features"));
+                assertEquals(1356998400000L, event.getInstant("trainingStart").toEpochMilli());
+                assertEquals(1357084800000L, event.getInstant("trainingEnd").toEpochMilli());
+            } else {
+                assertEquals(TraceFlushEvent.NAME, name);
+                assertEquals("trendResult.txt", event.getString("file"));
+                assertEquals(3, event.getLong("rows"));
+                assertEquals(192, event.getLong("bytes"));
+            }
+        }
+    }
+}
@@ -46,12 +46,20 @@ import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
 import de.hshannover.f4.trust.irondetect.model.Feature;
-import de.hshannover.f4.trust.irondetect.model.FeatureType;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.Boundary;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.DistanceType;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureBatch;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+import de.hshannover.f4.trust.irondetectprocedures.util.ParallelMoments;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+import de.hshannover.f4.trust.irondetectprocedures.util.RunningMoments;
 
 
 /**
@@ -63,6 +71,8 @@ import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
 public class Mean implements Procedureable {
 
 	private static Logger logger = Logger.getLogger(Mean.class);
+
+	private static final ProcedureProbe probe = ProcedureProbes.get();
 	
 	/**
 	 * As specified in the policy
@@ -79,64 +89,101 @@ public class Mean implements Procedureable {
 	 */
 	boolean trainingDone;
 	
+	/**
+	 * Flag that indicates if the mean is updated incrementally with new features
+	 * instead of being recalculated over the whole feature set
+	 */
+	private boolean streaming;
+	
+	/**
+	 * Running moments of the features seen in streaming mode
+	 */
+	private final RunningMoments moments = new RunningMoments();
+	
+	private final FeatureCursor cursor = new FeatureCursor();
+	
+	/**
+	 * State published for inspection after each evaluation
+	 */
+	private final PublishedState state = new PublishedState(Mean.class.getName(), PublishedState.expectation(), 0);
+
 	public Mean() {
 	}
 
 	@Override
 	public void setUp(String config) {
 		logger.trace("setUp(" + config + ")");
-		this.expectedByPolicy = Double.parseDouble(config);
+		ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+		this.expectedByPolicy = procedureConfig.getExpected();
+		this.streaming = "streaming".equals(procedureConfig.getString("mode", "batch"));
+		this.moments.clear();
+		this.cursor.reset();
 		this.trainingDone = false;
+		InspectionRegistry.register(state);
 	}
 
 	@Override
 	public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
 		logger.trace("calculate ...");
-		// get values from features
-		// FIXME what if different types if features are used?
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
+		Object span = probe.beginCalculate();
+		double mean = Double.NaN;
+		double expected = Double.NaN;
+		try {
+			if (streaming) {
+				// only take in features that were not seen before
+				moments.addUnseen(featureSet, cursor);
+				mean = moments.getMean();
+			} else {
+				// get values from features, parsed once per feature set
+				// FIXME what if different types if features are used?
+				FeatureBatch batch = FeatureBatch.of(featureSet);
+				// calculate mean
+				mean = StatUtils.mean(batch.values(), 0, batch.size());
 			}
-		}
-		// calculate mean
-		double mean = StatUtils.mean(values);
 		
-		// dispatch between policy defined and trained mean, prefer trained mean
-		double expected = this.trainingDone ? trained : expectedByPolicy;
+			// dispatch between policy defined and trained mean, prefer trained mean
+			expected = this.trainingDone ? trained : expectedByPolicy;
 		
-		/**
-		 * Associate the calculated value with the expected value and return a value within the range -1, +1.
-		 * This is done as follows:
-		 * - if in is at most 25 percent greater or lesser, return -1 (hint is not fulfilled)
-		 * - if in is at most 50 percent greater or lesser, return 0
-		 * - otherwise, return 1
-		 */
-		return ProcedureResultMapper.map(mean, expected, DistanceType.percent, Boundary.high, 25, 50);
+			/**
+			 * Associate the calculated value with the expected value and return a value within the range -1, +1.
+			 * This is done as follows:
+			 * - if in is at most 25 percent greater or lesser, return -1 (hint is not fulfilled)
+			 * - if in is at most 50 percent greater or lesser, return 0
+			 * - otherwise, return 1
+			 */
+			ProcedureResult result = ProcedureResultMapper.map(mean, expected, DistanceType.percent, Boundary.high, 25, 50);
+			this.state.publish(mean, expected, this.trained, this.expectedByPolicy, this.trainingDone);
+			return result;
+		} finally {
+			probe.endCalculate(span, Mean.class, featureSet.size(), mean, expected);
+		}
 	}
 
 	@Override
 	public void train(List<Feature> featureSet, List<Context> contextSet, Calendar start, Calendar end) {
 		logger.trace("start training ...");
-		// get values from features
-		// FIXME what if different types if features are used?
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
-			}
-		}
+		Object span = probe.beginTrain();
+		try {
+			// parse and reduce large training sets in parallel
+			// FIXME what if different types if features are used?
+			RunningMoments trainingMoments = ParallelMoments.compute(featureSet);
 		
-		// store as trained mean value
-		this.trained = StatUtils.mean(values); 
-		this.trainingDone = true;
-		logger.trace("training was done. value is " + this.trained);
+			// store as trained mean value
+			this.trained = trainingMoments.getMean();
+			this.trainingDone = true;
+			this.state.publish(Double.NaN, this.trained, this.trained, this.expectedByPolicy, this.trainingDone);
+			logger.trace("training was done. value is " + this.trained);
+		} finally {
+			probe.endTrain(span, Mean.class, featureSet.size(), start, end);
+		}
 	}
 	
 	@Override
 	public void tearDown(String config) {
 		logger.trace("tearDown()");
+		// drop the parsed features this thread keeps for the next evaluation
+		FeatureBatch.release();
+		InspectionRegistry.unregister(state);
 	}
 
 }
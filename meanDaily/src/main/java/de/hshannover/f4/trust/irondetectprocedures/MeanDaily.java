@@ -38,24 +38,29 @@
  */
 package de.hshannover.f4.trust.irondetectprocedures;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
-import de.hshannover.f4.trust.irondetect.model.ContextParamType;
 import de.hshannover.f4.trust.irondetect.model.Feature;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.Boundary;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.DistanceType;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
-import de.hshannover.f4.trust.irondetect.util.Helper;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureTimeOrder;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+import de.hshannover.f4.trust.irondetectprocedures.util.TimeBucketCounter;
+import de.hshannover.f4.trust.irondetectprocedures.util.XsdDateTime;
 
 /**
  * A simple mean procedure based on Apache Commons Math. This procedure is able
@@ -63,12 +68,21 @@ import de.hshannover.f4.trust.irondetect.util.Helper;
  * the procedure aims to calculate the mean on a daily basis rather than just
  * summing up all feature values.
  *
+ * With <code>baseline=seasonal</code> the count of the current hour is
+ * compared with the mean of the same hour on the same weekday instead, see
+ * {@link SeasonalBaseline}. <code>seasonDays</code> (default 7) and
+ * <code>slotsPerDay</code> (default 24) change the season. Until training
+ * is done, the policy value is spread evenly over the slots of a day.
+ *
  * @author ib
  *
  */
 public class MeanDaily implements Procedureable {
 
     private static Logger logger = Logger.getLogger(MeanDaily.class);
+
+    private static final ProcedureProbe probe = ProcedureProbes.get();
+
     /**
      * As specified in the policy
      */
@@ -81,6 +95,24 @@ public class MeanDaily implements Procedureable {
      * Flag that indicates if training was done.
      */
     boolean trainingDone;
+    /**
+     * Number of features per epoch day for the recent days
+     */
+    private TimeBucketCounter featuresPerDay = new TimeBucketCounter(DAYS_KEPT);
+    private FeatureCursor cursor = new FeatureCursor();
+    /**
+     * Only set for baseline=seasonal
+     */
+    private SeasonalBaseline seasonal;
+    private TimeBucketCounter featuresPerSlot;
+
+    private static final int DAYS_KEPT = 32;
+    private static final int SLOTS_KEPT = 2;
+
+    /**
+     * State published for inspection after each evaluation
+     */
+    private final PublishedState state = new PublishedState(MeanDaily.class.getName(), PublishedState.expectation(), 0);
 
     public MeanDaily() {
     }
@@ -88,37 +120,75 @@ public class MeanDaily implements Procedureable {
     @Override
     public void setUp(String config) {
         logger.trace("setUp(" + config + ")");
-        this.expectedByPolicy = Double.parseDouble(config);
+        ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+        this.expectedByPolicy = procedureConfig.getExpected();
         this.trainingDone = false;
+        this.featuresPerDay.clear();
+        this.cursor.reset();
+
+        String baseline = procedureConfig.getString("baseline", "flat");
+        if ("seasonal".equals(baseline)) {
+            this.seasonal = new SeasonalBaseline(procedureConfig.getInt("seasonDays", 7),
+                    procedureConfig.getInt("slotsPerDay", 24));
+            this.featuresPerSlot = new TimeBucketCounter(SLOTS_KEPT);
+        } else if ("flat".equals(baseline)) {
+            this.seasonal = null;
+            this.featuresPerSlot = null;
+        } else {
+            throw new IllegalArgumentException("unknown baseline: " + baseline);
+        }
+        InspectionRegistry.register(state);
     }
 
     @Override
     public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
         logger.trace("calculate ...");
-        // sort features by context parameter timestamp
-        Collections.sort(featureSet, new FeatureComparatorForCtxp(ContextParamType.DATETIME));
-        
-        // count features that were measured today
-        int count = 0;
-        Calendar today = Calendar.getInstance();
-        for (Feature f : featureSet) {
-            Calendar featureDate = Helper.getXsdStringAsCalendar(f.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-            if (isSameDay(featureDate, today)) {
-                count++;
+        Object span = probe.beginCalculate();
+        double count = Double.NaN;
+        double expected = Double.NaN;
+        try {
+            // count the features not seen before by the day they were measured
+            int from = this.cursor.advance(featureSet);
+            if (from == 0) {
+                this.featuresPerDay.clear();
+                if (this.seasonal != null) {
+                    this.featuresPerSlot.clear();
+                }
+            }
+            Iterator<Feature> it = featureSet.listIterator(from);
+            while (it.hasNext()) {
+                long timestamp = FeatureTimeOrder.timestampOf(it.next());
+                this.featuresPerDay.increment(XsdDateTime.epochDay(timestamp));
+                if (this.seasonal != null) {
+                    this.featuresPerSlot.increment(this.seasonal.slotOf(timestamp));
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (this.seasonal == null) {
+                // features that were measured today
+                count = this.featuresPerDay.get(XsdDateTime.epochDay(now));
+                // dispatch between policy defined and trained mean, prefer trained mean
+                expected = this.trainingDone ? trained : expectedByPolicy;
+            } else {
+                // features that were measured in the current slot, against the same slot of the season
+                count = this.featuresPerSlot.get(this.seasonal.slotOf(now));
+                expected = this.trainingDone ? this.seasonal.get(now) : expectedByPolicy / this.seasonal.getSlotsPerDay();
             }
-        }
 
-        // dispatch between policy defined and trained mean, prefer trained mean
-        double expected = this.trainingDone ? trained : expectedByPolicy;
-
-        /**
-         * Associate the calculated value with the expected value and return a
-         * value within the range -1, +1. This is done as follows: - if in is at
-         * most 25 percent greater or lesser, return -1 (hint is not fulfilled)
-         * - if in is at most 50 percent greater or lesser, return 0 -
-         * otherwise, return 1
-         */
-        return ProcedureResultMapper.map(count, expected, DistanceType.percent, Boundary.high, 25, 50);
+            /**
+             * Associate the calculated value with the expected value and return a
+             * value within the range -1, +1. This is done as follows: - if in is at
+             * most 25 percent greater or lesser, return -1 (hint is not fulfilled)
+             * - if in is at most 50 percent greater or lesser, return 0 -
+             * otherwise, return 1
+             */
+            ProcedureResult result = ProcedureResultMapper.map(count, expected, DistanceType.percent, Boundary.high, 25, 50);
+            this.state.publish(count, expected, this.trained, this.expectedByPolicy, this.trainingDone);
+            return result;
+        } finally {
+            probe.endCalculate(span, MeanDaily.class, featureSet.size(), count, expected);
+        }
     }
 
     /**
@@ -128,49 +198,52 @@ public class MeanDaily implements Procedureable {
      */
     @Override
     public void train(List<Feature> featureSet, List<Context> contextSet, Calendar startOfTraining, Calendar endOfTraining) {
-        // sort features by context parameter timestamp
-        Collections.sort(featureSet, new FeatureComparatorForCtxp(ContextParamType.DATETIME));
-        // get the training time
-        int trainingTime = durationInDays(startOfTraining, endOfTraining);
-
-        logger.debug("start training on data from  " + trainingTime + " days");
-
-        // how many days actually (when features were measured)?
-        int days = 0;
-        List<List<Feature>> featuresPerDay = new ArrayList<List<Feature>>();
-
-        ArrayList<Feature> oneDay = new ArrayList<Feature>();
-        featuresPerDay.add(oneDay);
-        oneDay.add(featureSet.get(0));
-
-        // FIXME may crash when less than 2 features are present
-        for (int i = 1; i < featureSet.size(); i++) {
-            Calendar prev = Helper.getXsdStringAsCalendar(featureSet.get(i - 1).getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-            Calendar now = Helper.getXsdStringAsCalendar(featureSet.get(i).getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-            
-            if (isSameDay(prev, now)) {
-                featuresPerDay.get(days).add(featureSet.get(i));
-            } else {
-                days++;
-                oneDay = new ArrayList<Feature>();
-                featuresPerDay.add(oneDay);
-                oneDay.add(featureSet.get(i));
+        Object span = probe.beginTrain();
+        try {
+            // get the training time
+            int trainingTime = durationInDays(startOfTraining, endOfTraining);
+
+            logger.debug("start training on data from  " + trainingTime + " days");
+
+            if (trainingTime == 0) {
+                logger.error("no training days, training is skipped.");
+                return;
             }
-        }
 
-        // calculate mean based on training duration
-        double[] values = new double[trainingTime];
-        
-        
-        // count events
-        for (int i = 0; i < featuresPerDay.size(); i++) {
-            values[i] = featuresPerDay.get(i).size();
-        }
+            // count events per day of the training time, in any order
+            double[] values = new double[trainingTime];
+            long firstDay = XsdDateTime.epochDay(startOfTraining.getTimeInMillis());
+            if (this.seasonal != null) {
+                this.seasonal.startTraining(startOfTraining.getTimeInMillis(), endOfTraining.getTimeInMillis());
+            }
+            int outside = 0;
+            for (Feature f : featureSet) {
+                long timestamp = FeatureTimeOrder.timestampOf(f);
+                if (this.seasonal != null) {
+                    this.seasonal.addTraining(timestamp);
+                }
+                long day = XsdDateTime.epochDay(timestamp) - firstDay;
+                if (day >= 0 && day < trainingTime) {
+                    values[(int) day]++;
+                } else {
+                    outside++;
+                }
+            }
+            if (outside > 0) {
+                logger.debug(outside + " features are outside of the training time and were ignored");
+            }
 
-        // store as trained mean value
-        this.trained = StatUtils.mean(values);
-        this.trainingDone = true;
-        logger.trace("training was done. value is " + this.trained);
+            // store as trained mean value
+            this.trained = StatUtils.mean(values);
+            if (this.seasonal != null) {
+                this.seasonal.finishTraining();
+            }
+            this.trainingDone = true;
+            this.state.publish(Double.NaN, this.trained, this.trained, this.expectedByPolicy, this.trainingDone);
+            logger.trace("training was done. value is " + this.trained);
+        } finally {
+            probe.endTrain(span, MeanDaily.class, featureSet.size(), startOfTraining, endOfTraining);
+        }
     }
     
     /**
@@ -181,65 +254,16 @@ public class MeanDaily implements Procedureable {
      * @return
      */
     private int durationInDays(Calendar start, Calendar end){
-        int duration = 0;
         if (start.after(end)) {
             logger.error("can not determine duration of training data. start date is after end date.");
-            return duration;
+            return 0;
         }
-        // check years (leap years are ignored)
-        duration += (end.get(Calendar.YEAR) - start.get(Calendar.YEAR)) * 365;
-        // check days
-        duration += end.get(Calendar.DAY_OF_YEAR) - start.get(Calendar.DAY_OF_YEAR) + 1;
-        return duration;
-    }
-    
-    /**
-     * Checks if the two calendar objects refer to the same day. ignores timezones
-     * @param c1
-     * @param c2
-     * @return
-     */
-    private boolean isSameDay(Calendar c1, Calendar c2){
-        return c1.get(Calendar.YEAR) == c2.get(Calendar.YEAR) && c1.get(Calendar.DAY_OF_YEAR) == c2.get(Calendar.DAY_OF_YEAR);
+        return XsdDateTime.durationInDays(start.getTimeInMillis(), end.getTimeInMillis());
     }
 
     @Override
     public void tearDown(String config) {
         logger.trace("tearDown()");
-    }
-
-    private class FeatureComparatorForCtxp implements Comparator<Feature> {
-
-        /**
-         * Indicates the context parameter type that is used for sorting
-         */
-        private final int ctxParameterType;
-
-        /**
-         *
-         * @param ctxp TODO at this moment ignored
-         */
-        public FeatureComparatorForCtxp(int ctxParamType) {
-            this.ctxParameterType = ContextParamType.DATETIME;
-        }
-
-        @Override
-        public int compare(Feature f1, Feature f2) {
-            switch (this.ctxParameterType) {
-                case ContextParamType.DATETIME:
-                    Calendar contextF1 = Helper.getXsdStringAsCalendar(f1.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-                    Calendar contextF2 = Helper.getXsdStringAsCalendar(f2.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-
-                    if (contextF1.before(contextF2)) {
-                        return -1;
-                    } else if (contextF1.after(contextF2)) {
-                        return 1;
-                    } else {
-                        return 0;
-                    }
-                default:
-                    throw new UnsupportedOperationException("Not supported yet.");
-            }
-        }
+        InspectionRegistry.unregister(state);
     }
 }
@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanDaily, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import de.hshannover.f4.trust.irondetectprocedures.util.XsdDateTime;
+
+/**
+ * Mean number of events per time slot of a recurring season, by default the
+ * 7 x 24 hours of a week in local time. The table is a float per slot, 672
+ * bytes for a week of hours, and is trained in one pass over the training
+ * data:
+ *
+ * <pre>
+ * startTraining(start, end);
+ * addTraining(millis); // for every event, in any order
+ * finishTraining();
+ * </pre>
+ *
+ * Slot i of a weekly season is day i / slotsPerDay counted from Monday, at
+ * slot i % slotsPerDay of that day. Each mean is the number of training
+ * events in the slot divided by how often the slot occurs in the training
+ * time, so a Monday morning is only compared with Monday mornings.
+ *
+ * @author Trust@HsH
+ */
+public class SeasonalBaseline {
+
+    /**
+     * 1970-01-01 was a Thursday
+     */
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private final int slotsPerDay;
+    private final long slotMillis;
+    private final float[] means;
+    private boolean trained;
+
+    // only while training
+    private int[] counts;
+    private long firstSlot;
+    private long lastSlot;
+
+    /**
+     * @param seasonDays length of the season, 7 for weekly, 1 for daily
+     * @param slotsPerDay number of slots a day is split into, must divide a
+     *            day into whole milliseconds
+     */
+    public SeasonalBaseline(int seasonDays, int slotsPerDay) {
+        if (seasonDays < 1 || slotsPerDay < 1 || XsdDateTime.MILLIS_PER_DAY % slotsPerDay != 0) {
+            throw new IllegalArgumentException("unsupported season: " + seasonDays + " days of " + slotsPerDay
+                    + " slots");
+        }
+        this.slotsPerDay = slotsPerDay;
+        this.slotMillis = XsdDateTime.MILLIS_PER_DAY / slotsPerDay;
+        this.means = new float[seasonDays * slotsPerDay];
+    }
+
+    /**
+     * @param millis milliseconds since the epoch
+     * @return the number of the local time slot, counted from the epoch
+     */
+    public long slotOf(long millis) {
+        return XsdDateTime.localBucket(millis, this.slotMillis);
+    }
+
+    /**
+     * @param slot a slot number as returned by {@link #slotOf(long)}
+     * @return its position in the season
+     */
+    public int seasonIndex(long slot) {
+        long i = (slot + (long) EPOCH_DAY_OF_WEEK * this.slotsPerDay) % this.means.length;
+        return (int) (i < 0 ? i + this.means.length : i);
+    }
+
+    /**
+     * @param millis
+     * @return the trained mean for the slot containing millis
+     */
+    public float get(long millis) {
+        return this.means[seasonIndex(slotOf(millis))];
+    }
+
+    public boolean isTrained() {
+        return this.trained;
+    }
+
+    public int getSlotsPerDay() {
+        return this.slotsPerDay;
+    }
+
+    /**
+     * @return the number of slots in a season
+     */
+    public int size() {
+        return this.means.length;
+    }
+
+    /**
+     * Starts training on the time from start to end, both included.
+     *
+     * @param startMillis
+     * @param endMillis
+     */
+    public void startTraining(long startMillis, long endMillis) {
+        this.counts = new int[this.means.length];
+        this.firstSlot = slotOf(startMillis);
+        this.lastSlot = slotOf(endMillis);
+    }
+
+    /**
+     * Counts a training event, events outside of the training time are
+     * ignored.
+     *
+     * @param millis
+     * @return false if the event is outside of the training time
+     */
+    public boolean addTraining(long millis) {
+        long slot = slotOf(millis);
+        if (slot < this.firstSlot || slot > this.lastSlot) {
+            return false;
+        }
+        this.counts[seasonIndex(slot)]++;
+        return true;
+    }
+
+    /**
+     * Turns the counts into means.
+     */
+    public void finishTraining() {
+        int n = this.means.length;
+        long slots = this.lastSlot - this.firstSlot + 1;
+        int firstIndex = seasonIndex(this.firstSlot);
+        for (int i = 0; i < n; i++) {
+            // how often slot i occurs in the training time
+            long offset = i - firstIndex;
+            if (offset < 0) {
+                offset += n;
+            }
+            long occurrences = slots <= offset ? 0 : (slots - offset - 1) / n + 1;
+            this.means[i] = occurrences == 0 ? 0 : (float) ((double) this.counts[i] / occurrences);
+        }
+        this.counts = null;
+        this.trained = true;
+    }
+}
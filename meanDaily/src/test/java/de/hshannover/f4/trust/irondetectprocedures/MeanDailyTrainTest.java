@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanDaily, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+
+/**
+ * @author Trust@HsH
+ */
+public class MeanDailyTrainTest {
+
+    @Test
+    public void averagesEventsPerTrainingDay() throws Exception {
+        Calendar start = Calendar.getInstance();
+        start.set(2013, Calendar.MARCH, 1, 12, 0, 0);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, 9);
+
+        // 30 events on day 0, 10 on day 4, one before and one after the
+        // training time
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 30; i++) {
+            features.add(feature(start, 0, i));
+        }
+        for (int i = 0; i < 10; i++) {
+            features.add(feature(start, 4, i));
+        }
+        features.add(feature(start, -1, 0));
+        features.add(feature(start, 10, 0));
+        Collections.shuffle(features, new Random(1));
+
+        MeanDaily meanDaily = new MeanDaily();
+        meanDaily.setUp("1");
+        meanDaily.train(features, null, start, end);
+        assertTrue(meanDaily.trainingDone);
+        // 40 events in 10 days
+        assertEquals(4.0, trained(meanDaily), 1e-12);
+    }
+
+    @Test
+    public void trainsOnSingleAndNoFeatures() throws Exception {
+        Calendar start = Calendar.getInstance();
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(feature(start, 0, 0));
+
+        MeanDaily meanDaily = new MeanDaily();
+        meanDaily.setUp("1");
+        meanDaily.train(features, null, start, start);
+        assertTrue(meanDaily.trainingDone);
+        assertEquals(1.0, trained(meanDaily), 0);
+
+        meanDaily.setUp("1");
+        meanDaily.train(new ArrayList<Feature>(), null, start, start);
+        assertEquals(0.0, trained(meanDaily), 0);
+    }
+
+    @Test
+    public void skipsTrainingWithoutDays() {
+        Calendar start = Calendar.getInstance();
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, -1);
+
+        MeanDaily meanDaily = new MeanDaily();
+        meanDaily.setUp("1");
+        meanDaily.train(new ArrayList<Feature>(), null, start, end);
+        assertFalse(meanDaily.trainingDone);
+    }
+
+    private static double trained(MeanDaily meanDaily) throws Exception {
+        Field field = MeanDaily.class.getDeclaredField("trained");
+        field.setAccessible(true);
+        return field.getDouble(meanDaily);
+    }
+
+    static Feature feature(Calendar start, int day, int minute) {
+        Calendar time = (Calendar) start.clone();
+        time.add(Calendar.DAY_OF_MONTH, day);
+        time.add(Calendar.MINUTE, minute);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        List<ContextParameter> ctxp = new ArrayList<ContextParameter>();
+        ctxp.add(new ContextParameter(new ContextParamType(ContextParamType.DATETIME), format.format(new Date(time.getTimeInMillis()))));
+        return new Feature("feature", "1", new FeatureType(FeatureType.QUANTITIVE), ctxp);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanDaily, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class SeasonalBaselineTest {
+
+    @Test
+    public void comparesMondaysWithMondays() {
+        // four weeks from Monday 2013-03-04 00:00 local time
+        Calendar start = Calendar.getInstance();
+        start.clear();
+        start.set(2013, Calendar.MARCH, 4);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, 28);
+        end.add(Calendar.MILLISECOND, -1);
+
+        SeasonalBaseline baseline = new SeasonalBaseline(7, 24);
+        baseline.startTraining(start.getTimeInMillis(), end.getTimeInMillis());
+        for (int week = 0; week < 4; week++) {
+            // 40 events every Monday between 9 and 10, 2 every Sunday at noon
+            for (int i = 0; i < 40; i++) {
+                assertTrue(baseline.addTraining(at(start, week * 7, 9, i)));
+            }
+            for (int i = 0; i < 2; i++) {
+                baseline.addTraining(at(start, week * 7 + 6, 12, i));
+            }
+        }
+        assertFalse(baseline.addTraining(at(start, 28, 9, 0)));
+        baseline.finishTraining();
+
+        assertTrue(baseline.isTrained());
+        assertEquals(168, baseline.size());
+        assertEquals(0, baseline.seasonIndex(baseline.slotOf(start.getTimeInMillis())));
+        assertEquals(40.0f, baseline.get(at(start, 35, 9, 30)), 0);
+        assertEquals(2.0f, baseline.get(at(start, 41, 12, 59)), 0);
+        assertEquals(0.0f, baseline.get(at(start, 36, 9, 30)), 0);
+    }
+
+    @Test
+    public void partialSeasonsCountOccurrences() {
+        // a daily season of 4 slots over 2.5 days starting with slot 2
+        SeasonalBaseline baseline = new SeasonalBaseline(1, 4);
+        Calendar start = Calendar.getInstance();
+        start.clear();
+        start.set(2013, Calendar.JANUARY, 7, 12, 0);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.HOUR_OF_DAY, 60);
+        end.add(Calendar.MILLISECOND, -1);
+
+        baseline.startTraining(start.getTimeInMillis(), end.getTimeInMillis());
+        for (int h = 0; h < 60; h++) {
+            baseline.addTraining(start.getTimeInMillis() + h * 3600000L);
+        }
+        baseline.finishTraining();
+        // every slot has 6 events per occurrence
+        for (int h = 0; h < 24; h += 6) {
+            assertEquals(6.0f, baseline.get(at(start, 0, h, 0)), 1e-6);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnevenSlots() {
+        new SeasonalBaseline(7, 7);
+    }
+
+    private static long at(Calendar day, int days, int hour, int minute) {
+        Calendar c = (Calendar) day.clone();
+        c.add(Calendar.DAY_OF_MONTH, days);
+        c.set(Calendar.HOUR_OF_DAY, hour);
+        c.set(Calendar.MINUTE, minute);
+        return c.getTimeInMillis();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanRate, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import java.util.Locale;
+
+import de.hshannover.f4.trust.irondetectprocedures.util.XsdDateTime;
+
+/**
+ * Length of the time buckets events are counted in. Days follow the local
+ * calendar like <code>MeanDaily</code>, minutes and hours are counted from the
+ * epoch.
+ *
+ * @author Trust@HsH
+ */
+public enum Granularity {
+
+    MINUTE(60 * 1000L), HOUR(60 * 60 * 1000L), DAY(XsdDateTime.MILLIS_PER_DAY);
+
+    private final long bucketMillis;
+
+    private Granularity(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * @param name minute, hour or day, in any case
+     * @return the granularity
+     * @throws IllegalArgumentException for any other name
+     */
+    public static Granularity parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown granularity: " + name);
+        }
+    }
+
+    /**
+     * @param millis milliseconds since the epoch
+     * @return the number of the bucket the instant falls into
+     */
+    public long bucketOf(long millis) {
+        if (this == DAY) {
+            return XsdDateTime.epochDay(millis);
+        }
+        long bucket = millis / bucketMillis;
+        return (millis % bucketMillis < 0) ? bucket - 1 : bucket;
+    }
+
+    /**
+     * @param startMillis
+     * @param endMillis
+     * @return the number of buckets from start to end, both included, 0 if
+     *         start is after end
+     */
+    public long bucketsBetween(long startMillis, long endMillis) {
+        if (startMillis > endMillis) {
+            return 0;
+        }
+        return bucketOf(endMillis) - bucketOf(startMillis) + 1;
+    }
+}
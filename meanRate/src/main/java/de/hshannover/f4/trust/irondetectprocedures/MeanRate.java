@@ -0,0 +1,191 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanRate, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
+import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
+import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.Boundary;
+import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.DistanceType;
+import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureTimeOrder;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+
+/**
+ * Compares the number of events in the current minute, hour or day with the
+ * mean number of events per minute, hour or day, like <code>MeanDaily</code>
+ * does for days. The granularity is chosen in the configuration:
+ *
+ * <pre>
+ * 20;granularity=hour
+ * </pre>
+ *
+ * The default is day. Events are counted in a {@link RateRollup} as they
+ * arrive, so an evaluation only looks at features it has not seen before.
+ *
+ * @author Trust@HsH
+ */
+public class MeanRate implements Procedureable {
+
+    private static Logger logger = Logger.getLogger(MeanRate.class);
+
+    private static final ProcedureProbe probe = ProcedureProbes.get();
+    /**
+     * As specified in the policy
+     */
+    private double expectedByPolicy;
+    /**
+     * As trained by the training data
+     */
+    private double trained;
+    /**
+     * Flag that indicates if training was done.
+     */
+    boolean trainingDone;
+    private Granularity granularity = Granularity.DAY;
+    private RateRollup rollup = new RateRollup();
+    private FeatureCursor cursor = new FeatureCursor();
+
+    public MeanRate() {
+    }
+
+    @Override
+    public void setUp(String config) {
+        logger.trace("setUp(" + config + ")");
+        ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+        this.expectedByPolicy = procedureConfig.getExpected();
+        this.granularity = Granularity.parse(procedureConfig.getString("granularity", "day"));
+        this.trainingDone = false;
+        this.rollup.clear();
+        this.cursor.reset();
+    }
+
+    @Override
+    public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
+        logger.trace("calculate ...");
+        Object span = probe.beginCalculate();
+        double count = Double.NaN;
+        double expected = Double.NaN;
+        try {
+            // count the features not seen before
+            int from = this.cursor.advance(featureSet);
+            if (from == 0) {
+                this.rollup.clear();
+            }
+            Iterator<Feature> it = featureSet.listIterator(from);
+            while (it.hasNext()) {
+                this.rollup.add(FeatureTimeOrder.timestampOf(it.next()));
+            }
+
+            // features in the current bucket
+            count = this.rollup.get(this.granularity, System.currentTimeMillis());
+
+            // dispatch between policy defined and trained mean, prefer trained mean
+            expected = this.trainingDone ? trained : expectedByPolicy;
+
+            /**
+             * Associate the calculated value with the expected value and return a
+             * value within the range -1, +1. This is done as follows: - if in is at
+             * most 25 percent greater or lesser, return -1 (hint is not fulfilled)
+             * - if in is at most 50 percent greater or lesser, return 0 -
+             * otherwise, return 1
+             */
+            ProcedureResult result = ProcedureResultMapper.map(count, expected, DistanceType.percent, Boundary.high, 25, 50);
+            return result;
+        } finally {
+            probe.endCalculate(span, MeanRate.class, featureSet.size(), count, expected);
+        }
+    }
+
+    /**
+     * Trains the mean number of events per bucket of the configured
+     * granularity over the training time.
+     *
+     * @param featureSet
+     * @param contextSet
+     */
+    @Override
+    public void train(List<Feature> featureSet, List<Context> contextSet, Calendar startOfTraining, Calendar endOfTraining) {
+        Object span = probe.beginTrain();
+        try {
+            long start = startOfTraining.getTimeInMillis();
+            long end = endOfTraining.getTimeInMillis();
+            long buckets = this.granularity.bucketsBetween(start, end);
+
+            logger.debug("start training on data from " + buckets + " " + this.granularity + " buckets");
+
+            if (buckets == 0) {
+                logger.error("can not determine duration of training data. start date is after end date.");
+                return;
+            }
+
+            long first = this.granularity.bucketOf(start);
+            long last = this.granularity.bucketOf(end);
+            long count = 0;
+            for (Feature f : featureSet) {
+                long bucket = this.granularity.bucketOf(FeatureTimeOrder.timestampOf(f));
+                if (bucket >= first && bucket <= last) {
+                    count++;
+                }
+            }
+
+            // store as trained mean value
+            this.trained = (double) count / buckets;
+            this.trainingDone = true;
+            logger.trace("training was done. value is " + this.trained);
+        } finally {
+            probe.endTrain(span, MeanRate.class, featureSet.size(), startOfTraining, endOfTraining);
+        }
+    }
+
+    @Override
+    public void tearDown(String config) {
+        logger.trace("tearDown()");
+    }
+}
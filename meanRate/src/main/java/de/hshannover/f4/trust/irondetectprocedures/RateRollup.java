@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanRate, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import de.hshannover.f4.trust.irondetectprocedures.util.TimeBucketCounter;
+
+/**
+ * Event counts at minute, hour and day resolution. Each level is a ring of
+ * the most recent buckets, so adding an event is three increments and the
+ * count of any recent bucket is a lookup, however long the history is.
+ *
+ * @author Trust@HsH
+ */
+public class RateRollup {
+
+    public static final int DEFAULT_MINUTES = 120;
+    public static final int DEFAULT_HOURS = 48;
+    public static final int DEFAULT_DAYS = 32;
+
+    // values() clones the array on every call
+    private static final Granularity[] GRANULARITIES = Granularity.values();
+
+    private final TimeBucketCounter[] levels = new TimeBucketCounter[GRANULARITIES.length];
+
+    public RateRollup() {
+        this(DEFAULT_MINUTES, DEFAULT_HOURS, DEFAULT_DAYS);
+    }
+
+    /**
+     * @param minutes number of recent minutes kept
+     * @param hours number of recent hours kept
+     * @param days number of recent days kept
+     */
+    public RateRollup(int minutes, int hours, int days) {
+        levels[Granularity.MINUTE.ordinal()] = new TimeBucketCounter(minutes);
+        levels[Granularity.HOUR.ordinal()] = new TimeBucketCounter(hours);
+        levels[Granularity.DAY.ordinal()] = new TimeBucketCounter(days);
+    }
+
+    /**
+     * Counts an event at all resolutions.
+     *
+     * @param millis time of the event
+     */
+    public void add(long millis) {
+        for (Granularity g : GRANULARITIES) {
+            levels[g.ordinal()].increment(g.bucketOf(millis));
+        }
+    }
+
+    /**
+     * @param granularity
+     * @param millis
+     * @return the number of events in the bucket of the given granularity
+     *         that contains millis, 0 if it is no longer kept
+     */
+    public int get(Granularity granularity, long millis) {
+        return levels[granularity.ordinal()].get(granularity.bucketOf(millis));
+    }
+
+    public void clear() {
+        for (TimeBucketCounter level : levels) {
+            level.clear();
+        }
+    }
+}
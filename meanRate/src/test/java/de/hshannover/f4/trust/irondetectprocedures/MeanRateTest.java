@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of meanRate, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+
+/**
+ * @author Trust@HsH
+ */
+public class MeanRateTest {
+
+    private static final long T0 = 1356998400000L; // 2013-01-01T00:00:00Z
+
+    @Test
+    public void rollupCountsAllResolutions() {
+        RateRollup rollup = new RateRollup(3, 3, 3);
+        for (int i = 0; i < 90; i++) {
+            // one event every 20 seconds for half an hour
+            rollup.add(T0 + i * 20000L);
+        }
+        long now = T0 + 89 * 20000L;
+        assertEquals(3, rollup.get(Granularity.MINUTE, now));
+        assertEquals(90, rollup.get(Granularity.HOUR, now));
+        assertEquals(90, rollup.get(Granularity.DAY, now));
+        // minute 0 is no longer kept
+        assertEquals(0, rollup.get(Granularity.MINUTE, T0));
+        assertEquals(0, rollup.get(Granularity.MINUTE, now + 60000L));
+    }
+
+    @Test
+    public void bucketsBeforeTheEpoch() {
+        assertEquals(-1, Granularity.MINUTE.bucketOf(-1));
+        assertEquals(0, Granularity.MINUTE.bucketOf(0));
+        assertEquals(2, Granularity.HOUR.bucketsBetween(-1, 0));
+    }
+
+    @Test
+    public void trainsEventsPerHour() throws Exception {
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 60; i++) {
+            features.add(feature(T0 + i * 60000L));
+        }
+        // outside of the training time
+        features.add(feature(T0 + 10 * 3600000L));
+
+        Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(T0);
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(T0 + 3 * 3600000L - 1);
+
+        MeanRate meanRate = new MeanRate();
+        meanRate.setUp("1;granularity=hour");
+        meanRate.train(features, null, start, end);
+        assertTrue(meanRate.trainingDone);
+        // 60 events in 3 hours
+        assertEquals(20.0, trained(meanRate), 1e-12);
+    }
+
+    private static double trained(MeanRate meanRate) throws Exception {
+        Field field = MeanRate.class.getDeclaredField("trained");
+        field.setAccessible(true);
+        return field.getDouble(meanRate);
+    }
+
+    private static Feature feature(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        List<ContextParameter> ctxp = new ArrayList<ContextParameter>();
+        ctxp.add(new ContextParameter(new ContextParamType(ContextParamType.DATETIME), format.format(new Date(millis))));
+        return new Feature("feature", "1", new FeatureType(FeatureType.QUANTITIVE), ctxp);
+    }
+}
@@ -39,23 +39,50 @@
 package de.hshannover.f4.trust.irondetectprocedures;
 
 import java.util.Calendar;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
 import de.hshannover.f4.trust.irondetect.model.Feature;
-import de.hshannover.f4.trust.irondetect.model.FeatureType;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.Boundary;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.DistanceType;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureBatch;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureTimeOrder;
+import de.hshannover.f4.trust.irondetectprocedures.util.ForkJoinPools;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
 
 
 /**
- * A simple median procedure based on Apache Commons Math
+ * A simple median procedure based on Apache Commons Math. The statistic is
+ * selected by the <code>mode</code> option of the configuration:
+ * <ul>
+ * <li><code>geometric</code> (default): the geometric mean of all values, as
+ * calculated by this procedure ever since</li>
+ * <li><code>p2</code>: the quantile given by the <code>quantile</code>
+ * option (default 0.5), estimated in constant memory with the P-square
+ * algorithm. Only features that were not seen before are taken in.</li>
+ * <li><code>exact</code>: the exact <code>quantile</code> found by selection
+ * on the primitive values, in parallel for more than
+ * <code>parallelThreshold</code> values</li>
+ * <li><code>window</code>: the exact median of a sliding window over the
+ * features seen so far. With <code>windowType=count</code> (default) the
+ * window holds the last <code>windowSize</code> features, with
+ * <code>windowType=duration</code> the features of the last
+ * <code>windowSize</code> (e.g. <code>15m</code>), measured from the newest
+ * DATETIME seen. Training calculates the exact median of the training set.</li>
+ * </ul>
+ * Examples: <code>42;mode=p2;quantile=0.95</code>,
+ * <code>42;mode=window;windowType=count;windowSize=100</code>
  * 
  * @author ib
  * 
@@ -63,6 +90,12 @@ import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
 public class Median implements Procedureable {
 
 	private static Logger logger = Logger.getLogger(Median.class);
+
+	private static final ProcedureProbe probe = ProcedureProbes.get();
+	
+	private enum Mode {
+		GEOMETRIC, P2, EXACT, WINDOW
+	}
 	
 	/**
 	 * As specified in the policy
@@ -79,55 +112,164 @@ public class Median implements Procedureable {
 	 */
 	boolean trainingDone;
 	
+	private Mode mode;
+	
+	/**
+	 * The quantile to calculate, 0.5 for the median
+	 */
+	private double quantile;
+	
+	/**
+	 * Estimator over all features seen in p2 mode
+	 */
+	private P2QuantileEstimator estimator;
+	
+	private final FeatureCursor cursor = new FeatureCursor();
+	
+	/**
+	 * Selects exact quantiles in exact mode
+	 */
+	private QuantileSelector selector;
+	
+	/**
+	 * Median of the latest features in window mode
+	 */
+	private SlidingWindowMedian window;
+	
+	/**
+	 * Flag that indicates if the window needs the timestamps of the features
+	 */
+	private boolean durationWindow;
+	
 	public Median() {
 	}
 
 	@Override
 	public void setUp(String config) {
 		logger.trace("setUp(" + config + ")");
-		this.expectedByPolicy = Double.parseDouble(config);
+		ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+		this.expectedByPolicy = procedureConfig.getExpected();
+		this.mode = Mode.valueOf(procedureConfig.getString("mode", "geometric").toUpperCase(Locale.ENGLISH));
+		this.quantile = procedureConfig.getDouble("quantile", 0.5);
+		this.estimator = new P2QuantileEstimator(quantile);
+		this.selector = new QuantileSelector(ForkJoinPools.shared(),
+				procedureConfig.getInt("parallelThreshold", QuantileSelector.DEFAULT_PARALLEL_THRESHOLD));
+		if (mode == Mode.WINDOW) {
+			this.durationWindow = "duration".equals(procedureConfig.getString("windowType", "count"));
+			this.window = durationWindow
+					? SlidingWindowMedian.ofDuration(procedureConfig.getDurationMillis("windowSize", 3600000L))
+					: SlidingWindowMedian.ofCount(procedureConfig.getInt("windowSize", 100));
+		}
+		this.cursor.reset();
 		this.trainingDone = false;
 	}
 
 	@Override
 	public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
 		logger.trace("calculate");
-		// get values from features
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
+		Object span = probe.beginCalculate();
+		double median = Double.NaN;
+		double expected = Double.NaN;
+		try {
+			switch (mode) {
+			case P2:
+				median = updateEstimator(featureSet);
+				break;
+			case EXACT:
+				FeatureBatch values = FeatureBatch.of(featureSet);
+				median = selector.quantile(values.values(), 0, values.size(), quantile);
+				break;
+			case WINDOW:
+				median = updateWindow(featureSet);
+				break;
+			default:
+				// get values from features, parsed once per feature set
+				FeatureBatch batch = FeatureBatch.of(featureSet);
+				// calculate median
+				median = StatUtils.geometricMean(batch.values(), 0, batch.size());
 			}
-		}
-		// calculate median
-		double median = StatUtils.geometricMean(values);
-		// dispatch between policy defined and trained mean, prefer trained mean
-		double expected = this.trainingDone ? trained : expectedByPolicy;
+			// dispatch between policy defined and trained mean, prefer trained mean
+			expected = this.trainingDone ? trained : expectedByPolicy;
 		
-		return ProcedureResultMapper.map(median, expected, DistanceType.percent, Boundary.high, 25, 50);
+			ProcedureResult result = ProcedureResultMapper.map(median, expected, DistanceType.percent, Boundary.high, 25, 50);
+			return result;
+		} finally {
+			probe.endCalculate(span, Median.class, featureSet.size(), median, expected);
+		}
+	}
+	
+	/**
+	 * Takes in the features that were not seen before.
+	 * 
+	 * @param featureSet
+	 * @return the estimated quantile of all features seen
+	 */
+	private double updateEstimator(List<Feature> featureSet) {
+		int from = cursor.advance(featureSet);
+		if (from == 0) {
+			estimator.clear();
+		}
+		for (Iterator<Feature> it = featureSet.listIterator(from); it.hasNext();) {
+			estimator.add(FeatureBatch.valueOf(it.next()));
+		}
+		return estimator.getQuantile();
+	}
+	
+	/**
+	 * Slides the window over the features that were not seen before.
+	 * 
+	 * @param featureSet
+	 * @return the median of the window
+	 */
+	private double updateWindow(List<Feature> featureSet) {
+		int from = cursor.advance(featureSet);
+		if (from == 0) {
+			window.clear();
+		}
+		for (Iterator<Feature> it = featureSet.listIterator(from); it.hasNext();) {
+			Feature f = it.next();
+			window.add(FeatureBatch.valueOf(f), durationWindow ? FeatureTimeOrder.timestampOf(f) : 0L);
+		}
+		return window.getMedian();
 	}
 	
 	@Override
 	public void tearDown(String config) {
 		logger.trace("tearDown()");
+		// drop the parsed features this thread keeps for the next evaluation
+		FeatureBatch.release();
 	}
 
 	@Override
 	public void train(List<Feature> featureSet, List<Context> contextSet, Calendar start, Calendar end) {
 		logger.trace("start training ...");
-		// get values from features
-		// FIXME what if different types if features are used?
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
+		Object span = probe.beginTrain();
+		try {
+			switch (mode) {
+			case P2:
+				P2QuantileEstimator trainingEstimator = new P2QuantileEstimator(quantile);
+				for (Feature f : featureSet) {
+					trainingEstimator.add(FeatureBatch.valueOf(f));
+				}
+				this.trained = trainingEstimator.getQuantile();
+				break;
+			case EXACT:
+			case WINDOW:
+				FeatureBatch values = FeatureBatch.of(featureSet);
+				this.trained = selector.quantile(values.values(), 0, values.size(), mode == Mode.WINDOW ? 0.5 : quantile);
+				break;
+			default:
+				// get values from features, parsed once per feature set
+				// FIXME what if different types if features are used?
+				FeatureBatch batch = FeatureBatch.of(featureSet);
+			
+				// store as trained value
+				this.trained = StatUtils.geometricMean(batch.values(), 0, batch.size()); 
 			}
+			this.trainingDone = true;
+			logger.trace("training was done. value is " + this.trained);
+		} finally {
+			probe.endTrain(span, Median.class, featureSet.size(), start, end);
 		}
-		
-		// store as trained value
-		this.trained = StatUtils.geometricMean(values); 
-		this.trainingDone = true;
-		logger.trace("training was done. value is " + this.trained);
 	}
 }
-
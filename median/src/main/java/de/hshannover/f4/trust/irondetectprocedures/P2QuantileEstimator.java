@@ -0,0 +1,201 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile estimator after the P-square algorithm of Jain and
+ * Chlamtac. It keeps five markers, takes in each value in O(1) time and
+ * needs constant memory no matter how many values it has seen. Until five
+ * values have been seen, the quantile is calculated exactly.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public class P2QuantileEstimator {
+
+	private final double p;
+
+	/**
+	 * Marker heights
+	 */
+	private final double[] q = new double[5];
+
+	/**
+	 * Actual marker positions, 1 based
+	 */
+	private final double[] n = new double[5];
+
+	/**
+	 * Desired marker positions
+	 */
+	private final double[] desired = new double[5];
+
+	/**
+	 * Increments of the desired marker positions
+	 */
+	private final double[] increment = new double[5];
+
+	private long count;
+
+	/**
+	 * @param p the quantile to estimate, between 0 and 1
+	 */
+	public P2QuantileEstimator(double p) {
+		if (!(p >= 0 && p <= 1)) {
+			throw new IllegalArgumentException("quantile must be between 0 and 1: " + p);
+		}
+		this.p = p;
+		increment[0] = 0;
+		increment[1] = p / 2;
+		increment[2] = p;
+		increment[3] = (1 + p) / 2;
+		increment[4] = 1;
+		clear();
+	}
+
+	/**
+	 * @param x
+	 */
+	public void add(double x) {
+		if (count < 5) {
+			q[(int) count++] = x;
+			if (count == 5) {
+				Arrays.sort(q);
+				for (int i = 0; i < 5; i++) {
+					n[i] = i + 1;
+				}
+				desired[0] = 1;
+				desired[1] = 1 + 2 * p;
+				desired[2] = 1 + 4 * p;
+				desired[3] = 3 + 2 * p;
+				desired[4] = 5;
+			}
+			return;
+		}
+		count++;
+
+		// find the cell of x and move the extreme markers if necessary
+		int k;
+		if (x < q[0]) {
+			q[0] = x;
+			k = 0;
+		} else if (x >= q[4]) {
+			q[4] = x;
+			k = 3;
+		} else {
+			k = 0;
+			while (x >= q[k + 1]) {
+				k++;
+			}
+		}
+
+		for (int i = k + 1; i < 5; i++) {
+			n[i]++;
+		}
+		for (int i = 0; i < 5; i++) {
+			desired[i] += increment[i];
+		}
+
+		// adjust the heights of the inner markers
+		for (int i = 1; i < 4; i++) {
+			double d = desired[i] - n[i];
+			if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+				int sign = d > 0 ? 1 : -1;
+				double candidate = parabolic(i, sign);
+				if (q[i - 1] < candidate && candidate < q[i + 1]) {
+					q[i] = candidate;
+				} else {
+					q[i] = linear(i, sign);
+				}
+				n[i] += sign;
+			}
+		}
+	}
+
+	/**
+	 * @return the estimated quantile, NaN if no value was added
+	 */
+	public double getQuantile() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (count < 5) {
+			double[] sorted = Arrays.copyOf(q, (int) count);
+			Arrays.sort(sorted);
+			double pos = p * (count - 1);
+			int lower = (int) pos;
+			int upper = Math.min(lower + 1, (int) count - 1);
+			return sorted[lower] + (pos - lower) * (sorted[upper] - sorted[lower]);
+		}
+		return q[2];
+	}
+
+	/**
+	 * @return the number of values seen
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the quantile that is estimated
+	 */
+	public double getP() {
+		return p;
+	}
+
+	public void clear() {
+		count = 0;
+		Arrays.fill(q, 0);
+		Arrays.fill(n, 0);
+		Arrays.fill(desired, 0);
+	}
+
+	private double parabolic(int i, int d) {
+		return q[i] + d / (n[i + 1] - n[i - 1])
+				* ((n[i] - n[i - 1] + d) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+				+ (n[i + 1] - n[i] - d) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+	}
+
+	private double linear(int i, int d) {
+		return q[i] + d * (q[i + d] - q[i]) / (n[i + d] - n[i]);
+	}
+}
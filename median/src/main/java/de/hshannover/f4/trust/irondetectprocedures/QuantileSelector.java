@@ -0,0 +1,389 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exact quantiles by selection instead of sorting. The values are copied into
+ * a reusable scratch buffer and the requested order statistic is found with
+ * an introselect: quickselect with a three-way partition that falls back to
+ * sorting the remaining range if the recursion gets too deep. This is O(n) on
+ * average and O(n log n) in the worst case.
+ * 
+ * Above a configurable size, candidates are narrowed down in parallel first:
+ * every round counts the values below and equal to a sampled pivot per chunk
+ * on a fork/join pool, then compacts the side that holds the requested rank
+ * into the second scratch buffer.
+ * 
+ * Quantiles are estimated like
+ * {@link org.apache.commons.math3.stat.descriptive.rank.Percentile} does,
+ * i.e. interpolated at position p * (n + 1).
+ * 
+ * Instances are not thread safe.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public class QuantileSelector {
+
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+	private static final int SAMPLE_SIZE = 31;
+
+	private final int parallelThreshold;
+	private final ForkJoinPool pool;
+
+	private double[] work = new double[0];
+	private double[] spare = new double[0];
+
+	/**
+	 * Selects sequentially up to {@link #DEFAULT_PARALLEL_THRESHOLD} values.
+	 * 
+	 * @param pool used above the threshold
+	 */
+	public QuantileSelector(ForkJoinPool pool) {
+		this(pool, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * @param pool used above the threshold
+	 * @param parallelThreshold number of values above which selection runs in
+	 *            parallel
+	 */
+	public QuantileSelector(ForkJoinPool pool, int parallelThreshold) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException("parallel threshold must be positive: " + parallelThreshold);
+		}
+		this.pool = pool;
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * @param values not modified
+	 * @param from
+	 * @param length
+	 * @param p the quantile, between 0 and 1
+	 * @return the quantile or NaN if length is 0
+	 */
+	public double quantile(double[] values, int from, int length, double p) {
+		if (!(p >= 0 && p <= 1)) {
+			throw new IllegalArgumentException("quantile must be between 0 and 1: " + p);
+		}
+		if (length == 0) {
+			return Double.NaN;
+		}
+		if (length == 1) {
+			return values[from];
+		}
+		double pos = p * (length + 1);
+		if (pos < 1) {
+			return min(values, from, from + length);
+		}
+		if (pos >= length) {
+			return max(values, from, from + length);
+		}
+		int k = (int) pos - 1;
+		double fraction = pos - (int) pos;
+
+		ensureCapacity(length);
+		System.arraycopy(values, from, work, 0, length);
+
+		double lower;
+		double upper;
+		if (length > parallelThreshold) {
+			lower = parallelSelect(length, k);
+			upper = fraction == 0 ? lower : next(values, from, length, k, lower);
+		} else {
+			lower = select(work, 0, length, k);
+			// everything behind k is at least as large as the k-th value
+			upper = fraction == 0 ? lower : min(work, k + 1, length);
+		}
+		return lower + fraction * (upper - lower);
+	}
+
+	/**
+	 * Moves the k-th smallest value of a[from, to) to index k, smaller values
+	 * before and larger values behind it.
+	 * 
+	 * @param a
+	 * @param from
+	 * @param to
+	 * @param k absolute index, from &lt;= k &lt; to
+	 * @return the k-th smallest value
+	 */
+	static double select(double[] a, int from, int to, int k) {
+		int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+		while (to - from > INSERTION_SORT_THRESHOLD) {
+			if (depthLimit-- == 0) {
+				Arrays.sort(a, from, to);
+				return a[k];
+			}
+			double pivot = medianOfThree(a[from], a[(from + to) >>> 1], a[to - 1]);
+
+			// three-way partition: [from, lt) < pivot, [lt, gt) == pivot,
+			// [gt, to) > pivot
+			int lt = from;
+			int gt = to;
+			int i = from;
+			while (i < gt) {
+				double v = a[i];
+				if (v < pivot) {
+					a[i++] = a[lt];
+					a[lt++] = v;
+				} else if (v > pivot) {
+					a[i] = a[--gt];
+					a[gt] = v;
+				} else {
+					i++;
+				}
+			}
+			if (k < lt) {
+				to = lt;
+			} else if (k >= gt) {
+				from = gt;
+			} else {
+				return pivot;
+			}
+		}
+		insertionSort(a, from, to);
+		return a[k];
+	}
+
+	private double parallelSelect(int length, int k) {
+		double[] src = work;
+		double[] dst = spare;
+		int n = length;
+		int chunks = Math.max(1, pool.getParallelism() * 4);
+		int[] less = new int[chunks];
+		int[] equal = new int[chunks];
+		int[] offsets = new int[chunks];
+
+		while (n > parallelThreshold) {
+			double pivot = samplePivot(src, n, k);
+			pool.invoke(new ChunkTask(ChunkTask.COUNT, src, dst, n, chunks, 0, chunks, pivot, false, less, equal, offsets));
+
+			int totalLess = 0;
+			int totalEqual = 0;
+			for (int c = 0; c < chunks; c++) {
+				totalLess += less[c];
+				totalEqual += equal[c];
+			}
+			if (k >= totalLess && k < totalLess + totalEqual) {
+				return pivot;
+			}
+			boolean keepLess = k < totalLess;
+			int offset = 0;
+			for (int c = 0; c < chunks; c++) {
+				offsets[c] = offset;
+				offset += keepLess ? less[c] : chunkLength(n, chunks, c) - less[c] - equal[c];
+			}
+			pool.invoke(new ChunkTask(ChunkTask.SCATTER, src, dst, n, chunks, 0, chunks, pivot, keepLess, less, equal, offsets));
+
+			if (!keepLess) {
+				k -= totalLess + totalEqual;
+			}
+			n = offset;
+			double[] t = src;
+			src = dst;
+			dst = t;
+		}
+		return select(src, 0, n, k);
+	}
+
+	/**
+	 * The value directly following the k-th smallest value in sorted order.
+	 */
+	private double next(double[] values, int from, int length, int k, double kth) {
+		int notGreater = 0;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = from; i < from + length; i++) {
+			double v = values[i];
+			if (v <= kth) {
+				notGreater++;
+			} else if (v < min) {
+				min = v;
+			}
+		}
+		return notGreater > k + 1 ? kth : min;
+	}
+
+	private static double samplePivot(double[] a, int n, int k) {
+		double[] sample = new double[SAMPLE_SIZE];
+		long step = n / SAMPLE_SIZE;
+		for (int i = 0; i < SAMPLE_SIZE; i++) {
+			sample[i] = a[(int) (i * step)];
+		}
+		Arrays.sort(sample);
+		return sample[(int) ((long) k * (SAMPLE_SIZE - 1) / (n - 1))];
+	}
+
+	private static int chunkStart(int n, int chunks, int c) {
+		return (int) ((long) n * c / chunks);
+	}
+
+	private static int chunkLength(int n, int chunks, int c) {
+		return chunkStart(n, chunks, c + 1) - chunkStart(n, chunks, c);
+	}
+
+	private static double medianOfThree(double a, double b, double c) {
+		if (a < b) {
+			return b < c ? b : (a < c ? c : a);
+		}
+		return a < c ? a : (b < c ? c : b);
+	}
+
+	private static void insertionSort(double[] a, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			double v = a[i];
+			int j = i - 1;
+			while (j >= from && a[j] > v) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = v;
+		}
+	}
+
+	private static double min(double[] a, int from, int to) {
+		double min = a[from];
+		for (int i = from + 1; i < to; i++) {
+			if (a[i] < min) {
+				min = a[i];
+			}
+		}
+		return min;
+	}
+
+	private static double max(double[] a, int from, int to) {
+		double max = a[from];
+		for (int i = from + 1; i < to; i++) {
+			if (a[i] > max) {
+				max = a[i];
+			}
+		}
+		return max;
+	}
+
+	private void ensureCapacity(int n) {
+		if (work.length < n) {
+			work = new double[n];
+		}
+		if (n > parallelThreshold && spare.length < n) {
+			spare = new double[work.length];
+		}
+	}
+
+	/**
+	 * Counts or scatters the chunks [first, last) of src[0, n).
+	 */
+	private static class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int COUNT = 0;
+		static final int SCATTER = 1;
+
+		private final int phase;
+		private final double[] src;
+		private final double[] dst;
+		private final int n;
+		private final int chunks;
+		private final int first;
+		private final int last;
+		private final double pivot;
+		private final boolean keepLess;
+		private final int[] less;
+		private final int[] equal;
+		private final int[] offsets;
+
+		ChunkTask(int phase, double[] src, double[] dst, int n, int chunks, int first, int last, double pivot,
+				boolean keepLess, int[] less, int[] equal, int[] offsets) {
+			this.phase = phase;
+			this.src = src;
+			this.dst = dst;
+			this.n = n;
+			this.chunks = chunks;
+			this.first = first;
+			this.last = last;
+			this.pivot = pivot;
+			this.keepLess = keepLess;
+			this.less = less;
+			this.equal = equal;
+			this.offsets = offsets;
+		}
+
+		@Override
+		protected void compute() {
+			if (last - first > 1) {
+				int mid = (first + last) >>> 1;
+				invokeAll(new ChunkTask(phase, src, dst, n, chunks, first, mid, pivot, keepLess, less, equal, offsets),
+						new ChunkTask(phase, src, dst, n, chunks, mid, last, pivot, keepLess, less, equal, offsets));
+				return;
+			}
+			int from = chunkStart(n, chunks, first);
+			int to = chunkStart(n, chunks, first + 1);
+			if (phase == COUNT) {
+				int l = 0;
+				int e = 0;
+				for (int i = from; i < to; i++) {
+					double v = src[i];
+					if (v < pivot) {
+						l++;
+					} else if (v == pivot) {
+						e++;
+					}
+				}
+				less[first] = l;
+				equal[first] = e;
+			} else {
+				int out = offsets[first];
+				for (int i = from; i < to; i++) {
+					double v = src[i];
+					if (keepLess ? v < pivot : v > pivot) {
+						dst[out++] = v;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+/**
+ * Exact median over a sliding window of values. The window either holds the
+ * last <code>n</code> values or all values of the last <code>t</code>
+ * milliseconds. Values are kept in a max-heap for the lower and a min-heap
+ * for the upper half. Both heaps are indexed, so the oldest value can be
+ * removed from the middle of a heap in O(log w). Insert and evict are
+ * therefore O(log w), reading the median is O(1), and nothing depends on the
+ * total number of values seen.
+ * 
+ * Values leave the window in the order they were added. For a duration
+ * window, a value is evicted once it is more than the window duration older
+ * than the newest timestamp seen.
+ * 
+ * @author Trust@HsH
+ * 
+ */
+public class SlidingWindowMedian {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final boolean countWindow;
+	private final long size;
+
+	/**
+	 * Ring of slots in insertion order, slot ids are indices into the arrays
+	 */
+	private double[] values;
+	private long[] times;
+	private int[] heapIndex;
+	private boolean[] inLower;
+	private int head;
+	private int count;
+	private long newest = Long.MIN_VALUE;
+
+	private final Heap lower = new Heap(true);
+	private final Heap upper = new Heap(false);
+
+	/**
+	 * @param n number of values in the window
+	 * @return a window over the last n values
+	 */
+	public static SlidingWindowMedian ofCount(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("window size must be positive: " + n);
+		}
+		return new SlidingWindowMedian(true, n, n);
+	}
+
+	/**
+	 * @param millis duration of the window
+	 * @return a window over the values of the last millis milliseconds
+	 */
+	public static SlidingWindowMedian ofDuration(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("window duration must not be negative: " + millis);
+		}
+		return new SlidingWindowMedian(false, millis, INITIAL_CAPACITY);
+	}
+
+	private SlidingWindowMedian(boolean countWindow, long size, int capacity) {
+		this.countWindow = countWindow;
+		this.size = size;
+		allocate(capacity);
+	}
+
+	/**
+	 * @param value
+	 * @param time epoch millis, only used by duration windows
+	 */
+	public void add(double value, long time) {
+		if (countWindow) {
+			if (count == size) {
+				remove(head);
+			}
+		} else {
+			if (time > newest) {
+				newest = time;
+			}
+			evictOlderThan(newest - size);
+			if (count == values.length) {
+				allocate(values.length * 2);
+			}
+		}
+
+		int slot = (head + count) % values.length;
+		count++;
+		values[slot] = value;
+		times[slot] = time;
+		if (lower.size == 0 || value <= values[lower.peek()]) {
+			inLower[slot] = true;
+			lower.push(slot);
+		} else {
+			inLower[slot] = false;
+			upper.push(slot);
+		}
+		rebalance();
+	}
+
+	/**
+	 * @return the median of the values in the window, NaN if it is empty
+	 */
+	public double getMedian() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (lower.size > upper.size) {
+			return values[lower.peek()];
+		}
+		return (values[lower.peek()] + values[upper.peek()]) / 2;
+	}
+
+	/**
+	 * @return the number of values in the window
+	 */
+	public int size() {
+		return count;
+	}
+
+	public void clear() {
+		head = 0;
+		count = 0;
+		newest = Long.MIN_VALUE;
+		lower.size = 0;
+		upper.size = 0;
+	}
+
+	private void evictOlderThan(long cutoff) {
+		while (count > 0 && times[head] < cutoff) {
+			remove(head);
+		}
+	}
+
+	/**
+	 * Removes the oldest value, which is stored in the given slot.
+	 */
+	private void remove(int slot) {
+		if (inLower[slot]) {
+			lower.remove(heapIndex[slot]);
+		} else {
+			upper.remove(heapIndex[slot]);
+		}
+		head = (head + 1) % values.length;
+		count--;
+		rebalance();
+	}
+
+	/**
+	 * Keeps the lower half equal to or one larger than the upper half.
+	 */
+	private void rebalance() {
+		if (lower.size > upper.size + 1) {
+			int slot = lower.pop();
+			inLower[slot] = false;
+			upper.push(slot);
+		} else if (upper.size > lower.size) {
+			int slot = upper.pop();
+			inLower[slot] = true;
+			lower.push(slot);
+		}
+	}
+
+	/**
+	 * Grows the ring, existing entries move to slots 0 to count - 1.
+	 */
+	private void allocate(int capacity) {
+		double[] newValues = new double[capacity];
+		long[] newTimes = new long[capacity];
+		int[] newHeapIndex = new int[capacity];
+		boolean[] newInLower = new boolean[capacity];
+		int[] moved = new int[values == null ? 0 : values.length];
+		for (int i = 0; i < count; i++) {
+			int old = (head + i) % values.length;
+			newValues[i] = values[old];
+			newTimes[i] = times[old];
+			newHeapIndex[i] = heapIndex[old];
+			newInLower[i] = inLower[old];
+			moved[old] = i;
+		}
+		lower.renumber(moved, capacity);
+		upper.renumber(moved, capacity);
+		values = newValues;
+		times = newTimes;
+		heapIndex = newHeapIndex;
+		inLower = newInLower;
+		head = 0;
+	}
+
+	/**
+	 * Binary heap of slot ids ordered by their values, that keeps heapIndex
+	 * of every slot up to date.
+	 */
+	private final class Heap {
+
+		private final boolean max;
+		private int[] slots = new int[0];
+		private int size;
+
+		Heap(boolean max) {
+			this.max = max;
+		}
+
+		int peek() {
+			return slots[0];
+		}
+
+		void push(int slot) {
+			slots[size] = slot;
+			heapIndex[slot] = size;
+			siftUp(size++);
+		}
+
+		int pop() {
+			int top = slots[0];
+			remove(0);
+			return top;
+		}
+
+		void remove(int i) {
+			size--;
+			if (i == size) {
+				return;
+			}
+			slots[i] = slots[size];
+			heapIndex[slots[i]] = i;
+			if (i > 0 && before(slots[i], slots[(i - 1) >>> 1])) {
+				siftUp(i);
+			} else {
+				siftDown(i);
+			}
+		}
+
+		void renumber(int[] moved, int capacity) {
+			int[] renumbered = new int[capacity];
+			for (int i = 0; i < size; i++) {
+				renumbered[i] = moved[slots[i]];
+			}
+			slots = renumbered;
+		}
+
+		private void siftUp(int i) {
+			int slot = slots[i];
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (!before(slot, slots[parent])) {
+					break;
+				}
+				slots[i] = slots[parent];
+				heapIndex[slots[i]] = i;
+				i = parent;
+			}
+			slots[i] = slot;
+			heapIndex[slot] = i;
+		}
+
+		private void siftDown(int i) {
+			int slot = slots[i];
+			int half = size >>> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && before(slots[child + 1], slots[child])) {
+					child++;
+				}
+				if (!before(slots[child], slot)) {
+					break;
+				}
+				slots[i] = slots[child];
+				heapIndex[slots[i]] = i;
+				i = child;
+			}
+			slots[i] = slot;
+			heapIndex[slot] = i;
+		}
+
+		private boolean before(int a, int b) {
+			return max ? values[a] > values[b] : values[a] < values[b];
+		}
+	}
+}
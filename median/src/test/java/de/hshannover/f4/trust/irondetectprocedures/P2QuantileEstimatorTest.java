@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.junit.Test;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class P2QuantileEstimatorTest {
+
+    @Test
+    public void testQuantilesOfNormalDistribution() {
+        Random random = new Random(13);
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + 15 * random.nextGaussian();
+        }
+        for (double p : new double[] {0.5, 0.95, 0.99}) {
+            P2QuantileEstimator estimator = new P2QuantileEstimator(p);
+            for (double v : values) {
+                estimator.add(v);
+            }
+            double exact = StatUtils.percentile(values, p * 100);
+            assertEquals("p" + p, exact, estimator.getQuantile(), 0.5);
+        }
+    }
+
+    @Test
+    public void testFewValues() {
+        P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+        assertTrue(Double.isNaN(estimator.getQuantile()));
+        estimator.add(3);
+        estimator.add(1);
+        estimator.add(2);
+        assertEquals(2, estimator.getQuantile(), 0);
+        estimator.add(10);
+        assertEquals(2.5, estimator.getQuantile(), 0);
+        estimator.clear();
+        assertEquals(0, estimator.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQuantile() {
+        new P2QuantileEstimator(1.5);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.junit.Test;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class QuantileSelectorTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.25, 0.5, 0.75, 0.95, 0.99, 1};
+
+    @Test
+    public void testSequentialMatchesPercentile() {
+        check(new QuantileSelector(new ForkJoinPool(1)), 1);
+    }
+
+    @Test
+    public void testParallelMatchesPercentile() {
+        check(new QuantileSelector(new ForkJoinPool(4), 50), 2);
+    }
+
+    @Test
+    public void testInputIsNotModified() {
+        double[] values = {5, 3, 1, 4, 2};
+        new QuantileSelector(new ForkJoinPool(1)).quantile(values, 0, values.length, 0.5);
+        assertArrayEquals(new double[] {5, 3, 1, 4, 2}, values, 0);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(Double.isNaN(new QuantileSelector(new ForkJoinPool(1)).quantile(new double[0], 0, 0, 0.5)));
+    }
+
+    private void check(QuantileSelector selector, long seed) {
+        Random random = new Random(seed);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(2000);
+            // few distinct values in every other round to exercise duplicates
+            int distinct = round % 2 == 0 ? 10 : Integer.MAX_VALUE;
+            double[] values = new double[n + 3];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(distinct);
+            }
+            for (double p : QUANTILES) {
+                double expected = p == 0 ? StatUtils.min(values, 3, n) : StatUtils.percentile(values, 3, n, p * 100);
+                assertEquals("n=" + n + ", p=" + p, expected, selector.quantile(values, 3, n, p),
+                        Math.abs(expected) * 1e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of median, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class SlidingWindowMedianTest {
+
+    @Test
+    public void testCountWindow() {
+        Random random = new Random(17);
+        for (int size : new int[] {1, 2, 7, 100}) {
+            SlidingWindowMedian window = SlidingWindowMedian.ofCount(size);
+            List<Double> all = new ArrayList<Double>();
+            for (int i = 0; i < 2000; i++) {
+                double v = random.nextInt(50);
+                all.add(v);
+                window.add(v, 0L);
+                List<Double> last = all.subList(Math.max(0, all.size() - size), all.size());
+                assertEquals("size " + size + ", step " + i, median(last), window.getMedian(), 0);
+                assertEquals(last.size(), window.size());
+            }
+        }
+    }
+
+    @Test
+    public void testDurationWindow() {
+        Random random = new Random(19);
+        SlidingWindowMedian window = SlidingWindowMedian.ofDuration(10000L);
+        List<double[]> all = new ArrayList<double[]>();
+        long time = 0;
+        for (int i = 0; i < 5000; i++) {
+            // bursts let the window grow beyond its initial capacity
+            time += i % 1000 < 300 ? 10 : random.nextInt(2000);
+            double v = random.nextGaussian();
+            all.add(new double[] {v, time});
+            window.add(v, time);
+
+            List<Double> inWindow = new ArrayList<Double>();
+            for (double[] entry : all) {
+                if (entry[1] >= time - 10000L) {
+                    inWindow.add(entry[0]);
+                }
+            }
+            assertEquals("step " + i, median(inWindow), window.getMedian(), 0);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        SlidingWindowMedian window = SlidingWindowMedian.ofCount(3);
+        assertTrue(Double.isNaN(window.getMedian()));
+        window.add(1, 0L);
+        window.clear();
+        assertTrue(Double.isNaN(window.getMedian()));
+    }
+
+    private static double median(List<Double> values) {
+        double[] sorted = new double[values.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = values.get(i);
+        }
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+/**
+ * The last <code>lag</code> predictions of a trend procedure in a primitive
+ * ring, so a long running procedure keeps constant memory. Once full, the
+ * oldest entry is the prediction made lag - 1 events ago, which is the one
+ * compared with the actual value of the current event.
+ *
+ * The error between that lagged prediction and the actual value is tracked
+ * per event and summed up as mean absolute and root mean square error.
+ *
+ * @author Trust@HsH
+ */
+public class PredictionHistory {
+
+    private final double[] times;
+    private final double[] predictions;
+    private int next;
+    private int size;
+
+    private double lastError = Double.NaN;
+    private long errors;
+    private double sumAbsErrors;
+    private double sumSquaredErrors;
+
+    /**
+     * @param lag number of predictions kept
+     */
+    public PredictionHistory(int lag) {
+        if (lag < 1) {
+            throw new IllegalArgumentException("lag must be positive: " + lag);
+        }
+        this.times = new double[lag];
+        this.predictions = new double[lag];
+    }
+
+    /**
+     * Records the prediction of the current event and, once the history is
+     * full, the error of the lagged prediction against the actual value.
+     *
+     * @param time the x the prediction was made for
+     * @param predicted
+     * @param actual the y of the current event
+     */
+    public void add(double time, double predicted, double actual) {
+        times[next] = time;
+        predictions[next] = predicted;
+        next = (next + 1) % predictions.length;
+        if (size < predictions.length) {
+            size++;
+        }
+        if (isFull()) {
+            lastError = actual - getLagged();
+            if (!Double.isNaN(lastError)) {
+                errors++;
+                sumAbsErrors += Math.abs(lastError);
+                sumSquaredErrors += lastError * lastError;
+            }
+        }
+    }
+
+    /**
+     * @return true once lag predictions were recorded
+     */
+    public boolean isFull() {
+        return size == predictions.length;
+    }
+
+    /**
+     * @return the oldest prediction kept, NaN if the history is not full yet
+     */
+    public double getLagged() {
+        return isFull() ? predictions[next] : Double.NaN;
+    }
+
+    /**
+     * @return the x of the oldest prediction kept, NaN if the history is not
+     *         full yet
+     */
+    public double getLaggedTime() {
+        return isFull() ? times[next] : Double.NaN;
+    }
+
+    /**
+     * @return actual minus lagged prediction of the latest event, NaN if
+     *         there was none yet
+     */
+    public double getLastError() {
+        return lastError;
+    }
+
+    public long getErrorCount() {
+        return errors;
+    }
+
+    public double getMeanAbsoluteError() {
+        return errors == 0 ? Double.NaN : sumAbsErrors / errors;
+    }
+
+    public double getRootMeanSquareError() {
+        return errors == 0 ? Double.NaN : Math.sqrt(sumSquaredErrors / errors);
+    }
+
+    public int getLag() {
+        return predictions.length;
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+        lastError = Double.NaN;
+        errors = 0;
+        sumAbsErrors = 0;
+        sumSquaredErrors = 0;
+    }
+}
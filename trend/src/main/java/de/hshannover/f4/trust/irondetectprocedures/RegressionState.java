@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+
+/**
+ * The regression results the trend procedures publish for inspection, after
+ * the values of {@link PublishedState#expectation(String...)}, followed by
+ * the errors of their lagged predictions, see {@link PredictionHistory}.
+ *
+ * @author Trust@HsH
+ */
+final class RegressionState {
+
+    private static final String[] NAMES = { "slope", "intercept", "slopeStdErr", "interceptStdErr", "x", "y",
+            "yPredicted", "meanAbsoluteError", "rootMeanSquareError" };
+
+    /**
+     * Index of the first value after the regression results
+     */
+    static final int FIRST_EXTRA = PublishedState.FIRST_EXTRA + NAMES.length;
+
+    private RegressionState() {
+    }
+
+    /**
+     * @param more names of values published in addition, from
+     *            {@link #FIRST_EXTRA} on
+     * @return the names of a trend procedure's state
+     */
+    static String[] names(String... more) {
+        String[] names = new String[NAMES.length + more.length];
+        System.arraycopy(NAMES, 0, names, 0, NAMES.length);
+        System.arraycopy(more, 0, names, NAMES.length, more.length);
+        return PublishedState.expectation(names);
+    }
+
+    /**
+     * Puts the regression results, between
+     * {@link PublishedState#beginPublish(double, double, double, double, boolean)}
+     * and {@link PublishedState#endPublish()}.
+     *
+     * @param state
+     * @param slope
+     * @param intercept
+     * @param slopeStdErr
+     * @param interceptStdErr
+     * @param x
+     * @param y
+     * @param yPredicted
+     * @param predictions the errors are taken from
+     */
+    static void put(PublishedState state, double slope, double intercept, double slopeStdErr, double interceptStdErr,
+            double x, double y, double yPredicted, PredictionHistory predictions) {
+        int i = PublishedState.FIRST_EXTRA;
+        state.put(i, slope);
+        state.put(i + 1, intercept);
+        state.put(i + 2, slopeStdErr);
+        state.put(i + 3, interceptStdErr);
+        state.put(i + 4, x);
+        state.put(i + 5, y);
+        state.put(i + 6, yPredicted);
+        state.put(i + 7, predictions.getMeanAbsoluteError());
+        state.put(i + 8, predictions.getRootMeanSquareError());
+    }
+}
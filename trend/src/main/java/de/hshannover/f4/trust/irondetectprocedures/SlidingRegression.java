@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+/**
+ * Least squares line through a window of points that supports removing points
+ * as well as adding them, each in O(1). Sliding a window of w points over n
+ * points therefore costs O(n) instead of O(n*w) for rebuilding a
+ * {@link org.apache.commons.math3.stat.regression.SimpleRegression} per step.
+ *
+ * Like SimpleRegression, the sums are kept centered on the running means
+ * (Welford style updates), which avoids the cancellation of the textbook
+ * sum(x*x) - sum(x)*sum(x)/n formulas. Removing a point runs the add update
+ * backwards. Long sequences of add/remove accumulate rounding error though,
+ * so callers should {@link #clear()} and re-add their window once
+ * {@link #getRemovals()} reaches the window size, which keeps the amortized
+ * cost per step O(1).
+ *
+ * The results follow the definitions of SimpleRegression with intercept:
+ * NaN slope for fewer than two points or no variation in x, NaN standard
+ * errors for fewer than three points.
+ *
+ * @author Trust@HsH
+ */
+public class SlidingRegression {
+
+    private long n;
+    private long removals;
+    private double xbar;
+    private double ybar;
+    private double sumXX;
+    private double sumYY;
+    private double sumXY;
+
+    /**
+     * Adds the point (x, y).
+     *
+     * @param x
+     * @param y
+     */
+    public void addData(double x, double y) {
+        if (n == 0) {
+            xbar = x;
+            ybar = y;
+        } else {
+            double fact = (double) n / (n + 1);
+            double dx = x - xbar;
+            double dy = y - ybar;
+            sumXX += dx * dx * fact;
+            sumYY += dy * dy * fact;
+            sumXY += dx * dy * fact;
+            xbar += dx / (n + 1);
+            ybar += dy / (n + 1);
+        }
+        n++;
+    }
+
+    /**
+     * Removes the point (x, y), which must have been added before.
+     *
+     * @param x
+     * @param y
+     */
+    public void removeData(double x, double y) {
+        if (n == 0) {
+            return;
+        }
+        removals++;
+        if (n == 1) {
+            clearSums();
+            return;
+        }
+        double fact = (double) (n - 1) / n;
+        double newXbar = (n * xbar - x) / (n - 1);
+        double newYbar = (n * ybar - y) / (n - 1);
+        double dx = x - newXbar;
+        double dy = y - newYbar;
+        sumXX = Math.max(0, sumXX - dx * dx * fact);
+        sumYY = Math.max(0, sumYY - dy * dy * fact);
+        sumXY -= dx * dy * fact;
+        xbar = newXbar;
+        ybar = newYbar;
+        n--;
+    }
+
+    public void clear() {
+        clearSums();
+        removals = 0;
+    }
+
+    private void clearSums() {
+        n = 0;
+        xbar = 0;
+        ybar = 0;
+        sumXX = 0;
+        sumYY = 0;
+        sumXY = 0;
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * @return the number of points removed since the last {@link #clear()}
+     */
+    public long getRemovals() {
+        return removals;
+    }
+
+    public double getSlope() {
+        if (n < 2 || Math.abs(sumXX) < 10 * Double.MIN_VALUE) {
+            return Double.NaN;
+        }
+        return sumXY / sumXX;
+    }
+
+    public double getIntercept() {
+        return ybar - getSlope() * xbar;
+    }
+
+    public double predict(double x) {
+        return getIntercept() + getSlope() * x;
+    }
+
+    public double getSumSquaredErrors() {
+        return Math.max(0d, sumYY - sumXY * sumXY / sumXX);
+    }
+
+    public double getMeanSquareError() {
+        if (n < 3) {
+            return Double.NaN;
+        }
+        return getSumSquaredErrors() / (n - 2);
+    }
+
+    public double getSlopeStdErr() {
+        return Math.sqrt(getMeanSquareError() / sumXX);
+    }
+
+    public double getInterceptStdErr() {
+        return Math.sqrt(getMeanSquareError() * ((1d / n) + (xbar * xbar) / sumXX));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+/**
+ * Bounded, time ordered ring buffer of (timestamp, value) pairs. It holds the
+ * newest <code>capacity</code> points seen so far, oldest first. Points that
+ * arrive in order are appended in O(1), late points are inserted at their
+ * position in O(capacity). Points older than everything in a full window are
+ * dropped, because they would never be among the newest.
+ *
+ * @author Trust@HsH
+ */
+public class TimeSeriesWindow {
+
+    private final long[] times;
+    private final double[] values;
+    private int head;
+    private int size;
+
+    /**
+     * @param capacity maximum number of points
+     */
+    public TimeSeriesWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Adds a point. Points with equal timestamps keep their arrival order.
+     *
+     * @param time
+     * @param value
+     * @return false if the point was dropped because it is too old
+     */
+    public boolean add(long time, double value) {
+        int capacity = times.length;
+        if (size == capacity) {
+            if (time < times[head]) {
+                return false;
+            }
+            // make room by dropping the oldest point
+            head = (head + 1) % capacity;
+            size--;
+        }
+        // find the insert position from the newest end, usually no shift at all
+        int pos = size;
+        while (pos > 0 && times[index(pos - 1)] > time) {
+            int from = index(pos - 1);
+            int to = index(pos);
+            times[to] = times[from];
+            values[to] = values[from];
+            pos--;
+        }
+        int slot = index(pos);
+        times[slot] = time;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @param i 0 for the oldest point
+     * @return the timestamp of the i-th point
+     */
+    public long getTime(int i) {
+        checkIndex(i);
+        return times[index(i)];
+    }
+
+    /**
+     * @param i 0 for the oldest point
+     * @return the value of the i-th point
+     */
+    public double getValue(int i) {
+        checkIndex(i);
+        return values[index(i)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int index(int i) {
+        return (head + i) % times.length;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        }
+    }
+}
@@ -38,27 +38,26 @@
  */
 package de.hshannover.f4.trust.irondetectprocedures;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.logging.Level;
 
 import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
-import de.hshannover.f4.trust.irondetect.model.ContextParamType;
-import de.hshannover.f4.trust.irondetect.model.ContextParameter;
 import de.hshannover.f4.trust.irondetect.model.Feature;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
-import de.hshannover.f4.trust.irondetect.util.Helper;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.trace.NoopTraceSink;
+import de.hshannover.f4.trust.irondetectprocedures.trace.TraceSink;
+import de.hshannover.f4.trust.irondetectprocedures.trace.TraceSinks;
+import de.hshannover.f4.trust.irondetectprocedures.util.LatestFeature;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
 
 /*
  * Copyright 2012 Trust@FHH.
@@ -82,6 +81,9 @@ import de.hshannover.f4.trust.irondetect.util.Helper;
 public class TrendByValue implements Procedureable {
 
     private static Logger logger = Logger.getLogger(TrendByValue.class);
+
+    private static final ProcedureProbe probe = ProcedureProbes.get();
+
     /**
      * As specified in the policy
      */
@@ -99,14 +101,14 @@ public class TrendByValue implements Procedureable {
      */
     SimpleRegression simpleRegression;
     /**
-     * IO
+     * Receives the results for gnuplot
      */
-    FileWriter fw;
+    TraceSink trace = NoopTraceSink.INSTANCE;
     private double slope, intercept, slopeStdErr, interceptStdErr, x, y, yPredicted;
     private int index = 0;
     private int predictionRange = 10;
-    private ArrayList<Double> predictionResult = new ArrayList<Double>();
-    private ArrayList<Double> predictionTime = new ArrayList<Double>();
+    private PredictionHistory predictions = new PredictionHistory(predictionRange);
+    private LatestFeature latestFeature = new LatestFeature();
     private long startTimeStamp;
     private boolean startTimeStampAvailable;
 
@@ -121,13 +123,19 @@ public class TrendByValue implements Procedureable {
         return currentTime - this.startTimeStamp;
     }
 
+    /**
+     * State published for inspection after each evaluation
+     */
+    private final PublishedState state = new PublishedState(TrendByValue.class.getName(), RegressionState.names(), 0);
+
     public TrendByValue() {
     }
 
     @Override
     public void setUp(String config) {
         logger.trace("setUp(" + config + ")");
-        this.expectedByPolicy = Double.parseDouble(config);
+        ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+        this.expectedByPolicy = procedureConfig.getExpected();
         this.trainingDone = false;
         this.simpleRegression = new SimpleRegression();
         this.slope = 0;
@@ -135,14 +143,12 @@ public class TrendByValue implements Procedureable {
         this.slopeStdErr = 0;
         this.interceptStdErr = 0;
         this.yPredicted = 0;
+        this.predictions.clear();
+        this.latestFeature.reset();
 
-        try {
-            fw = new FileWriter(new File("trendResult.txt"), false);
-            fw.write("##;##" + System.getProperty("line.separator"));
-            fw.write("idx;x;y;slope;intercept;slopeStdErr;interceptStdErr;yPredicted" + System.getProperty("line.separator"));
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValue.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        this.trace.close();
+        this.trace = TraceSinks.create(procedureConfig, TraceSinks.numbered("trendResult.txt"));
+        InspectionRegistry.register(this.state);
     }
 
     @Override
@@ -151,52 +157,59 @@ public class TrendByValue implements Procedureable {
         double timestamp = 0;
 
         logger.trace("calculate ...");
-        // sort features by context parameter timestamp
-        Collections.sort(featureSet, new FeatureComparatorForCtxp(ContextParamType.DATETIME));
-
-        if (featureSet.isEmpty()) {
-            return new ProcedureResult(0);
-        }
-
-        feature = featureSet.get(featureSet.size() - 1);
+        Object span = probe.beginCalculate();
+        double currentSlope = Double.NaN;
+        double expected = Double.NaN;
+        try {
+            // find the newest feature, the list is left as it is
+            int latest = this.latestFeature.indexIn(featureSet);
 
-        // get timestamp in UNIX time
-        ContextParameter contextParam = feature.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME));
-        Calendar cal = Helper.getXsdStringAsCalendar(contextParam.getValue());
-        timestamp = cal.getTime().getTime() / 1000L;
+            if (latest < 0) {
+                return new ProcedureResult(0);
+            }
 
-        if (this.startTimeStampAvailable == false) {
-            setStartTimeStamp((long) timestamp);
-        }
+            feature = featureSet.get(latest);
 
+            // get timestamp in UNIX time
+            timestamp = this.latestFeature.getTimestamp() / 1000L;
 
-        this.x = getDeltaTime((long) timestamp);
-        this.y = new Double(feature.getValue()).doubleValue() / 1000;
+            if (this.startTimeStampAvailable == false) {
+                setStartTimeStamp((long) timestamp);
+            }
 
-        // update the regression calculation
-        this.simpleRegression.addData(this.x, this.y);
-        this.intercept = this.simpleRegression.getIntercept();
-        this.slope = this.simpleRegression.getSlope();
-        this.interceptStdErr = this.simpleRegression.getInterceptStdErr();
-        this.slopeStdErr = this.simpleRegression.getSlopeStdErr();
-        double predTime = this.x+this.predictionRange;
-        this.yPredicted = this.simpleRegression.predict(predTime);
-        this.predictionResult.add(this.yPredicted);
-        this.predictionTime.add(predTime);
-        // log the results for gnuplot
-        logResults();
 
-        // dispatch between policy defined and trained mean, prefer trained mean
-        double expected = this.trainingDone ? trained : expectedByPolicy;
-
-        /**
-         * Associate the calculated value with the expected value and return a
-         * value within the range -1, +1. This is done as follows: - if in is at
-         * most 50 percent greater or lesser, return -1 (hint is not fulfilled)
-         * - if in is at most 100 percent greater or lesser, return 0 -
-         * otherwise, return 1
-         */
-        return ProcedureResultMapper.map(this.simpleRegression.getSlope(), expected, ProcedureResultMapper.DistanceType.percent, ProcedureResultMapper.Boundary.high, 50, 100);
+            this.x = getDeltaTime((long) timestamp);
+            this.y = Double.parseDouble(feature.getValue()) / 1000;
+
+            // update the regression calculation
+            this.simpleRegression.addData(this.x, this.y);
+            this.intercept = this.simpleRegression.getIntercept();
+            this.slope = this.simpleRegression.getSlope();
+            this.interceptStdErr = this.simpleRegression.getInterceptStdErr();
+            this.slopeStdErr = this.simpleRegression.getSlopeStdErr();
+            double predTime = this.x+this.predictionRange;
+            this.yPredicted = this.simpleRegression.predict(predTime);
+            this.predictions.add(predTime, this.yPredicted, this.y);
+            // log the results for gnuplot
+            logResults();
+
+            // dispatch between policy defined and trained mean, prefer trained mean
+            expected = this.trainingDone ? trained : expectedByPolicy;
+
+            /**
+             * Associate the calculated value with the expected value and return a
+             * value within the range -1, +1. This is done as follows: - if in is at
+             * most 50 percent greater or lesser, return -1 (hint is not fulfilled)
+             * - if in is at most 100 percent greater or lesser, return 0 -
+             * otherwise, return 1
+             */
+            currentSlope = this.simpleRegression.getSlope();
+            ProcedureResult result = ProcedureResultMapper.map(currentSlope, expected, ProcedureResultMapper.DistanceType.percent, ProcedureResultMapper.Boundary.high, 50, 100);
+            publish(currentSlope, expected);
+            return result;
+        } finally {
+            probe.endCalculate(span, TrendByValue.class, featureSet.size(), currentSlope, expected);
+        }
     }
 
     public double test(double d1, double d2) {
@@ -228,94 +241,40 @@ public class TrendByValue implements Procedureable {
         logger.trace("Training not supported for this procedure");
     }
 
-    private void logResults() {
-        try {
-            if (this.predictionResult.size() < this.predictionRange) {
-                fw.write(this.index++ + ";" + this.x + ";" + this.y + ";" + this.slope + ";" + this.intercept + ";" + this.slopeStdErr + ";" + this.interceptStdErr + ";" + "0" + System.getProperty("line.separator"));
-            } else {
-                fw.write(this.index++ + ";" + this.x + ";" + this.y + ";" + this.slope + ";" + this.intercept + ";" + this.slopeStdErr + ";" + this.interceptStdErr +  ";" + this.predictionResult.get(this.predictionResult.size()-this.predictionRange) +  System.getProperty("line.separator"));
-            }
-            fw.flush();
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValue.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-
     /**
-     * Calculates the duration in days from start to end. Example: 1.1.2011 to
-     * 5.1.2011 would return 5.
-     *
-     * @param start
-     * @param end
-     * @return
+     * @return the recent predictions and their errors against the actual
+     *         values
      */
-    private int durationInDays(Calendar start, Calendar end) {
-        int duration = 0;
-        if (start.after(end)) {
-            logger.error("can not determine duration of training data. start date is after end date.");
-            return duration;
+    public PredictionHistory getPredictionHistory() {
+        return this.predictions;
+    }
+
+    private void logResults() {
+        long row = this.index++;
+        if (this.trace.isEnabled()) {
+            double predicted = this.predictions.isFull() ? this.predictions.getLagged() : TraceSink.NO_PREDICTION;
+            this.trace.trace(row, this.x, this.y, this.slope, this.intercept, this.slopeStdErr, this.interceptStdErr, predicted);
         }
-        // check years (leap years are ignored)
-        duration += (end.get(Calendar.YEAR) - start.get(Calendar.YEAR)) * 365;
-        // check days
-        duration += end.get(Calendar.DAY_OF_YEAR) - start.get(Calendar.DAY_OF_YEAR) + 1;
-        return duration;
     }
 
     /**
-     * Checks if the two calendar objects refer to the same day. ignores
-     * timezones
-     *
-     * @param c1
-     * @param c2
-     * @return
+     * Publishes the state for inspection, skipped if a publish is running.
+     * 
+     * @param statistic NaN after training
+     * @param expected
      */
-    private boolean isSameDay(Calendar c1, Calendar c2) {
-        return c1.get(Calendar.YEAR) == c2.get(Calendar.YEAR) && c1.get(Calendar.DAY_OF_YEAR) == c2.get(Calendar.DAY_OF_YEAR);
+    private void publish(double statistic, double expected) {
+        if (this.state.beginPublish(statistic, expected, this.trained, this.expectedByPolicy, this.trainingDone)) {
+            RegressionState.put(this.state, this.slope, this.intercept, this.slopeStdErr, this.interceptStdErr, this.x,
+                    this.y, this.yPredicted, this.predictions);
+            this.state.endPublish();
+        }
     }
 
     @Override
     public void tearDown(String config) {
         logger.trace("tearDown()");
-        try {
-            fw.close();
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValue.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-
-    private class FeatureComparatorForCtxp implements Comparator<Feature> {
-
-        /**
-         * Indicates the context parameter type that is used for sorting
-         */
-        private final int ctxParameterType;
-
-        /**
-         *
-         * @param ctxp TODO at this moment ignored
-         */
-        public FeatureComparatorForCtxp(int ctxParamType) {
-            this.ctxParameterType = ContextParamType.DATETIME;
-        }
-
-        @Override
-        public int compare(Feature f1, Feature f2) {
-            switch (this.ctxParameterType) {
-                case ContextParamType.DATETIME:
-                    Calendar contextF1 = Helper.getXsdStringAsCalendar(f1.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-                    Calendar contextF2 = Helper.getXsdStringAsCalendar(f2.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-
-                    if (contextF1.before(contextF2)) {
-                        return -1;
-                    } else if (contextF1.after(contextF2)) {
-                        return 1;
-                    } else {
-                        return 0;
-                    }
-                default:
-                    throw new UnsupportedOperationException("Not supported yet.");
-            }
-        }
+        InspectionRegistry.unregister(this.state);
+        this.trace.close();
     }
 }
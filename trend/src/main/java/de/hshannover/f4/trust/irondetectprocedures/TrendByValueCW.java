@@ -38,27 +38,26 @@
  */
 package de.hshannover.f4.trust.irondetectprocedures;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.logging.Level;
 
-import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
-import de.hshannover.f4.trust.irondetect.model.ContextParamType;
-import de.hshannover.f4.trust.irondetect.model.ContextParameter;
 import de.hshannover.f4.trust.irondetect.model.Feature;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
-import de.hshannover.f4.trust.irondetect.util.Helper;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.trace.NoopTraceSink;
+import de.hshannover.f4.trust.irondetectprocedures.trace.TraceSink;
+import de.hshannover.f4.trust.irondetectprocedures.trace.TraceSinks;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureTimeOrder;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+import de.hshannover.f4.trust.irondetectprocedures.util.XsdDateTime;
 
 /*
  * Copyright 2012 Trust@FHH.
@@ -84,6 +83,11 @@ public class TrendByValueCW implements Procedureable {
     private static int counter = 0;
 
     private static Logger logger = Logger.getLogger(TrendByValueCW.class);
+
+    private static final ProcedureProbe probe = ProcedureProbes.get();
+
+    private static final String[] STATE = RegressionState.names("windowSize", "heldBytes");
+
     /**
      * As specified in the policy
      */
@@ -97,24 +101,28 @@ public class TrendByValueCW implements Procedureable {
      */
     boolean trainingDone;
     /**
-     *
+     * Regression over the points in the window, kept up to date as points
+     * enter and leave it
      */
-    SimpleRegression simpleRegression;
+    SlidingRegression simpleRegression;
     
     int freshness = 10;
     
     /**
-     * IO
+     * Receives the results for gnuplot
      */
-    FileWriter fw;
+    TraceSink trace = NoopTraceSink.INSTANCE;
     private double slope, intercept, slopeStdErr, interceptStdErr, x, y, yPredicted;
     private int index = 0;
     private int predictionRange = 10;
-    private ArrayList<Double> predictionResult = new ArrayList<Double>();
-    private ArrayList<Double> predictionTime = new ArrayList<Double>();
+    private PredictionHistory predictions = new PredictionHistory(predictionRange);
     private long startTimeStamp;
     private boolean startTimeStampAvailable;
-    private List<Feature> state = new ArrayList<Feature>();
+    /**
+     * The freshest features seen so far, as (epoch millis, y) pairs
+     */
+    private TimeSeriesWindow window = new TimeSeriesWindow(freshness);
+    private long[] timestamps;
 
     private void setStartTimeStamp(long ts) {
         if (!this.startTimeStampAvailable) {
@@ -127,108 +135,134 @@ public class TrendByValueCW implements Procedureable {
         return currentTime - this.startTimeStamp;
     }
 
+    /**
+     * State published for inspection after each evaluation, the series holds
+     * the window as (epoch millis, y) pairs
+     */
+    PublishedState state = new PublishedState(TrendByValueCW.class.getName(), STATE, 2 * freshness);
+
     public TrendByValueCW() {
     }
 
     @Override
     public void setUp(String config) {
         logger.trace("setUp(" + config + ")");
-        this.expectedByPolicy = Double.parseDouble(config);
+        ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+        this.expectedByPolicy = procedureConfig.getExpected();
+        this.freshness = procedureConfig.getInt("freshness", this.freshness);
+        this.window = new TimeSeriesWindow(this.freshness);
         this.trainingDone = false;
-        this.simpleRegression = new SimpleRegression();
+        this.simpleRegression = new SlidingRegression();
         this.slope = 0;
         this.intercept = 0;
         this.slopeStdErr = 0;
         this.interceptStdErr = 0;
         this.yPredicted = 0;
+        this.predictions.clear();
 
-        try {
-            fw = new FileWriter(new File("trendResultCW" + TrendByValueCW.counter++ + ".txt"), false);
-            fw.write("##;##" + System.getProperty("line.separator"));
-            fw.write("idx;x;y;slope;intercept;slopeStdErr;interceptStdErr;yPredicted" + System.getProperty("line.separator"));
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValueCW.class.getName()).log(Level.SEVERE, null, ex);
+        this.trace.close();
+        this.trace = TraceSinks.create(procedureConfig, "trendResultCW" + TrendByValueCW.counter++ + ".txt");
+        if (this.state.getSeriesCapacity() != 2 * this.freshness) {
+            InspectionRegistry.unregister(this.state);
+            this.state = new PublishedState(TrendByValueCW.class.getName(), STATE, 2 * this.freshness);
         }
+        InspectionRegistry.register(this.state);
     }
 
     @Override
     public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
-        Feature feature;
-        double timestamp = 0;
-        List<Feature> freshestFeatures = new ArrayList<Feature>();
-        
-        // add new features to state
-        for (Feature f : featureSet) {
-            this.state.add(f);
-        }
-        
-        // reset regression
-        this.simpleRegression.clear();
-
-        logger.trace("calculate for " + featureSet.size() + " new features.");
-        
-        // sort features by context parameter timestamp
-        Collections.sort(state, new FeatureComparatorForCtxp(ContextParamType.DATETIME));
-
-        // check
-        if (state.isEmpty()) {
-            logger.warn("no features to calculate on. returning 0.");
-            return new ProcedureResult(0);
+        if (logger.isTraceEnabled()) {
+            logger.trace("calculate for " + featureSet.size() + " new features.");
         }
+        Object span = probe.beginCalculate();
+        double currentSlope = Double.NaN;
+        double expected = Double.NaN;
+        try {
 
-        // copy fresh features
-        if (freshness > state.size()) {
-            // use them all
-            freshestFeatures = state;
-        } else {
-            // only use the frehest
-            for (int i = freshness; i > 0; i--) {
-                freshestFeatures.add(state.get(state.size() - i));
+            this.timestamps = FeatureTimeOrder.timestamps(featureSet, this.timestamps);
+            int n = featureSet.size();
+
+            // the time origin is the oldest of the freshest points, so the
+            // regression is only updated once the first window is filled
+            boolean originKnown = this.startTimeStampAvailable;
+
+            // add new features to the window, only the freshest are kept. the
+            // point pushed out of a full window leaves the regression as well.
+            int i = 0;
+            for (Feature f : featureSet) {
+                long time = this.timestamps[i++];
+                double value = round(Double.parseDouble(f.getValue()) / 1000);
+                if (!originKnown) {
+                    this.window.add(time, value);
+                    continue;
+                }
+                boolean evicts = this.window.size() == this.window.capacity() && time >= this.window.getTime(0);
+                double evictedX = evicts ? windowX(0) : 0;
+                double evictedY = evicts ? this.window.getValue(0) : 0;
+                if (this.window.add(time, value)) {
+                    if (evicts) {
+                        this.simpleRegression.removeData(evictedX, evictedY);
+                    }
+                    this.simpleRegression.addData(getDeltaTime(time / 1000L), value);
+                }
+            }
+            if (!originKnown && !this.window.isEmpty()) {
+                // get timestamp in UNIX time
+                setStartTimeStamp(this.window.getTime(0) / 1000L);
+                for (int j = 0; j < this.window.size(); j++) {
+                    this.simpleRegression.addData(windowX(j), this.window.getValue(j));
+                }
             }
-        }
-        
-        logger.trace(TrendByValueCW.class.getSimpleName() + " on " + freshestFeatures.size() + " features");
-
-        for (int i = 0; i < freshestFeatures.size(); i++) {
-            feature = freshestFeatures.get(i);
 
-            // get timestamp in UNIX time
-            ContextParameter contextParam = feature.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME));
-            Calendar cal = Helper.getXsdStringAsCalendar(contextParam.getValue());
-            timestamp = cal.getTime().getTime() / 1000L;
+            // check
+            if (this.window.isEmpty()) {
+                logger.warn("no features to calculate on. returning 0.");
+                return new ProcedureResult(0);
+            }
 
-            if (this.startTimeStampAvailable == false) {
-                setStartTimeStamp((long) timestamp);
+            // bound the rounding error that piles up by sliding
+            if (this.simpleRegression.getRemovals() >= this.window.capacity()) {
+                this.simpleRegression.clear();
+                for (int j = 0; j < this.window.size(); j++) {
+                    this.simpleRegression.addData(windowX(j), this.window.getValue(j));
+                }
             }
 
-            this.x = getDeltaTime((long) timestamp);
-            this.y = round(new Double(feature.getValue()).doubleValue() / 1000);
+            if (logger.isTraceEnabled()) {
+                logger.trace(TrendByValueCW.class.getSimpleName() + " on " + this.window.size() + " features");
+            }
 
-            // update the regression calculation
-            this.simpleRegression.addData(this.x, this.y);
+            // the freshest point
+            this.x = windowX(this.window.size() - 1);
+            this.y = this.window.getValue(this.window.size() - 1);
+
+            this.intercept = round(this.simpleRegression.getIntercept());
+            this.slope = round(this.simpleRegression.getSlope());
+            this.interceptStdErr = round(this.simpleRegression.getInterceptStdErr());
+            this.slopeStdErr = round(this.simpleRegression.getSlopeStdErr());
+            double predTime = this.x + this.predictionRange;
+            this.yPredicted = round(this.simpleRegression.predict(predTime));
+            this.predictions.add(predTime, this.yPredicted, this.y);
+            // log the results for gnuplot
+            logResults();
+
+            // dispatch between policy defined and trained mean, prefer trained mean
+            expected = this.trainingDone ? trained : expectedByPolicy;
+
+            /**
+             * Associate the calculated value with the expected value and return a
+             * value within the range -1, +1. This is done as follows: - if in is at
+             * most 50 percent greater or lesser, return -1 (hint is not fulfilled)
+             * - if in is at most 100 percent greater or lesser, return 0 -
+             * otherwise, return 1
+             */
+            currentSlope = this.simpleRegression.getSlope();
+            ProcedureResult result = ProcedureResultMapper.map(currentSlope, expected, ProcedureResultMapper.DistanceType.percent, ProcedureResultMapper.Boundary.high, 50, 100);
+            publish(currentSlope, expected);
+            return result;
+        } finally {
+            probe.endCalculate(span, TrendByValueCW.class, featureSet.size(), currentSlope, expected);
         }
-        this.intercept = round(this.simpleRegression.getIntercept());
-        this.slope = round(this.simpleRegression.getSlope());
-        this.interceptStdErr = round(this.simpleRegression.getInterceptStdErr());
-        this.slopeStdErr = round(this.simpleRegression.getSlopeStdErr());
-        double predTime = this.x + this.predictionRange;
-        this.yPredicted = round(this.simpleRegression.predict(predTime));
-        this.predictionResult.add(this.yPredicted);
-        this.predictionTime.add(predTime);
-        // log the results for gnuplot
-        logResults();
-
-        // dispatch between policy defined and trained mean, prefer trained mean
-        double expected = this.trainingDone ? trained : expectedByPolicy;
-
-        /**
-         * Associate the calculated value with the expected value and return a
-         * value within the range -1, +1. This is done as follows: - if in is at
-         * most 50 percent greater or lesser, return -1 (hint is not fulfilled)
-         * - if in is at most 100 percent greater or lesser, return 0 -
-         * otherwise, return 1
-         */
-        return ProcedureResultMapper.map(this.simpleRegression.getSlope(), expected, ProcedureResultMapper.DistanceType.percent, ProcedureResultMapper.Boundary.high, 50, 100);
     }
 
     public double test(double d1, double d2) {
@@ -257,63 +291,87 @@ public class TrendByValueCW implements Procedureable {
      */
     @Override
     public void train(List<Feature> featureSet, List<Context> contextSet, Calendar startOfTraining, Calendar endOfTraining) { 
-        // sort features by context parameter timestamp
-        Collections.sort(featureSet, new FeatureComparatorForCtxp(ContextParamType.DATETIME));
-        // get the training time
-        int trainingTime = durationInDays(startOfTraining, endOfTraining);
-        logger.info("start training on data from  " + trainingTime + " days");
-        
-        ArrayList<Feature> tmpList = new ArrayList<Feature>();
-        SimpleRegression tmpRegression = new SimpleRegression();
-        double tmpSlope = 0;
-        Feature tmpFeature;
-        double timestamp;
-        
+        Object span = probe.beginTrain();
+        try {
+            // sort features by context parameter timestamp
+            FeatureTimeOrder.sort(featureSet);
+            // get the training time
+            int trainingTime = durationInDays(startOfTraining, endOfTraining);
+            logger.info("start training on data from  " + trainingTime + " days");
         
-        for (int i = 0; i < (featureSet.size() - freshness); i++) {
-            tmpList.clear();
-            tmpRegression.clear();
-            
-            // get featues equal to freshness size
-            for (int j = 0; j < freshness; j++) {
-                tmpFeature = featureSet.get(i + j);
+            int n = featureSet.size();
+            long[] times = FeatureTimeOrder.timestamps(featureSet, null);
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
                 // get timestamp in UNIX time
-                ContextParameter contextParam = tmpFeature.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME));
-                Calendar cal = Helper.getXsdStringAsCalendar(contextParam.getValue());
-                timestamp = cal.getTime().getTime() / 1000L;
+                long timestamp = times[i] / 1000L;
 
-            if (this.startTimeStampAvailable == false) {
-                setStartTimeStamp((long) timestamp);
-            }
+                if (this.startTimeStampAvailable == false) {
+                    setStartTimeStamp(timestamp);
+                }
 
-            this.x = getDeltaTime((long) timestamp);
-            this.y = round(new Double(tmpFeature.getValue()).doubleValue() / 1000);
-                
-            // add data and calculate new slope         
-            tmpRegression.addData(x, y);
-            tmpSlope = tmpRegression.getSlope();
-            logger.info("training step: " + tmpSlope);
-            if (!Double.isNaN(tmpSlope)) {
-                trained = (trained + tmpSlope) / 2;
+                xs[i] = getDeltaTime(timestamp);
+                ys[i] = round(Double.parseDouble(featureSet.get(i).getValue()) / 1000);
             }
-            
+
+            // slide a window of freshness points over the training data, each
+            // step removes the oldest point and adds the next one
+            SlidingRegression tmpRegression = new SlidingRegression();
+            double tmpSlope;
+            for (int i = 0; i < n - freshness; i++) {
+                if (i == 0) {
+                    for (int j = 0; j < freshness; j++) {
+                        tmpRegression.addData(xs[j], ys[j]);
+                    }
+                } else if (tmpRegression.getRemovals() >= freshness) {
+                    // bound the rounding error that piles up by sliding
+                    tmpRegression.clear();
+                    for (int j = i; j < i + freshness; j++) {
+                        tmpRegression.addData(xs[j], ys[j]);
+                    }
+                } else {
+                    tmpRegression.removeData(xs[i - 1], ys[i - 1]);
+                    tmpRegression.addData(xs[i + freshness - 1], ys[i + freshness - 1]);
+                }
+
+                // calculate new slope
+                tmpSlope = tmpRegression.getSlope();
+                logger.trace("training step: " + tmpSlope);
+                if (!Double.isNaN(tmpSlope)) {
+                    trained = (trained + tmpSlope) / 2;
+                }
             }
-        }
         
-        this.trainingDone = true;
-        logger.info("training was done. value is " + this.trained);
+            this.trainingDone = true;
+            publish(Double.NaN, this.trained);
+            logger.info("training was done. value is " + this.trained);
+        } finally {
+            probe.endTrain(span, TrendByValueCW.class, featureSet.size(), startOfTraining, endOfTraining);
+        }
+    }
+
+    /**
+     * @param i index into the window
+     * @return the regression x of the i-th point in the window
+     */
+    private double windowX(int i) {
+        return getDeltaTime(this.window.getTime(i) / 1000L);
+    }
+
+    /**
+     * @return the recent predictions and their errors against the actual
+     *         values
+     */
+    public PredictionHistory getPredictionHistory() {
+        return this.predictions;
     }
 
     private void logResults() {
-        try {
-            if (this.predictionResult.size() < this.predictionRange) {
-                fw.write(this.index++ + ";" + this.x + ";" + this.y + ";" + this.slope + ";" + this.intercept + ";" + this.slopeStdErr + ";" + this.interceptStdErr + ";" + "0" + System.getProperty("line.separator"));
-            } else {
-                fw.write(this.index++ + ";" + this.x + ";" + this.y + ";" + this.slope + ";" + this.intercept + ";" + this.slopeStdErr + ";" + this.interceptStdErr + ";" + this.predictionResult.get(this.predictionResult.size() - this.predictionRange) + System.getProperty("line.separator"));
-            }
-            fw.flush();
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValueCW.class.getName()).log(Level.SEVERE, null, ex);
+        long row = this.index++;
+        if (this.trace.isEnabled()) {
+            double predicted = this.predictions.isFull() ? this.predictions.getLagged() : TraceSink.NO_PREDICTION;
+            this.trace.trace(row, this.x, this.y, this.slope, this.intercept, this.slopeStdErr, this.interceptStdErr, predicted);
         }
     }
 
@@ -326,76 +384,44 @@ public class TrendByValueCW implements Procedureable {
      * @return
      */
     private int durationInDays(Calendar start, Calendar end) {
-        int duration = 0;
         if (start.after(end)) {
             logger.error("can not determine duration of training data. start date is after end date.");
-            return duration;
+            return 0;
         }
-        // check years (leap years are ignored)
-        duration += (end.get(Calendar.YEAR) - start.get(Calendar.YEAR)) * 365;
-        // check days
-        duration += end.get(Calendar.DAY_OF_YEAR) - start.get(Calendar.DAY_OF_YEAR) + 1;
-        return duration;
+        return XsdDateTime.durationInDays(start.getTimeInMillis(), end.getTimeInMillis());
     }
 
     /**
-     * Checks if the two calendar objects refer to the same day. ignores
-     * timezones
-     *
-     * @param c1
-     * @param c2
-     * @return
+     * Publishes the state for inspection, skipped if a publish is running.
+     * 
+     * @param statistic NaN after training
+     * @param expected
      */
-    private boolean isSameDay(Calendar c1, Calendar c2) {
-        return c1.get(Calendar.YEAR) == c2.get(Calendar.YEAR) && c1.get(Calendar.DAY_OF_YEAR) == c2.get(Calendar.DAY_OF_YEAR);
+    private void publish(double statistic, double expected) {
+        if (this.state.beginPublish(statistic, expected, this.trained, this.expectedByPolicy, this.trainingDone)) {
+            RegressionState.put(this.state, this.slope, this.intercept, this.slopeStdErr, this.interceptStdErr, this.x,
+                    this.y, this.yPredicted, this.predictions);
+            this.state.put(RegressionState.FIRST_EXTRA, this.window.size());
+            this.state.put(RegressionState.FIRST_EXTRA + 1,
+                    (long) this.window.capacity() * 16 + (this.timestamps != null ? this.timestamps.length * 8L : 0));
+            int n = this.window.size();
+            for (int i = 0; i < n; i++) {
+                this.state.putSeries(2 * i, this.window.getTime(i));
+                this.state.putSeries(2 * i + 1, this.window.getValue(i));
+            }
+            this.state.setSeriesLength(2 * n);
+            this.state.endPublish();
+        }
     }
 
     @Override
     public void tearDown(String config) {
         logger.trace("tearDown()");
-        try {
-            fw.close();
-        } catch (IOException ex) {
-            java.util.logging.Logger.getLogger(TrendByValueCW.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        InspectionRegistry.unregister(this.state);
+        this.trace.close();
     }
 
     private double round(double d) {
         return Math.round(d * 100.) / 100.;
     }
-
-    private class FeatureComparatorForCtxp implements Comparator<Feature> {
-
-        /**
-         * Indicates the context parameter type that is used for sorting
-         */
-        private final int ctxParameterType;
-
-        /**
-         *
-         * @param ctxp TODO at this moment ignored
-         */
-        public FeatureComparatorForCtxp(int ctxParamType) {
-            this.ctxParameterType = ContextParamType.DATETIME;
-        }
-
-        @Override
-        public int compare(Feature f1, Feature f2) {
-            switch (this.ctxParameterType) {
-                case ContextParamType.DATETIME:
-                    Calendar contextF1 = Helper.getXsdStringAsCalendar(f1.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-                    Calendar contextF2 = Helper.getXsdStringAsCalendar(f2.getContextParameterByType(new ContextParamType(ContextParamType.DATETIME)).getValue());
-
-                    if (contextF1.before(contextF2)) {
-                        return -1;
-                    } else if (contextF1.after(contextF2)) {
-                        return 1;
-                    } else {
-                        return 0;
-                    }
-                default:
-                    throw new UnsupportedOperationException("Not supported yet.");
-            }
-        }
-    }
 }
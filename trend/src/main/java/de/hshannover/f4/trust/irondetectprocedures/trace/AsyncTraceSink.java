@@ -0,0 +1,397 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+
+/**
+ * Trace sink that hands rows to the background {@link TraceWriter}, which
+ * writes them to a file, either as semicolon separated text for gnuplot or in
+ * a compact binary {@link Format} that {@link TraceConverter} turns into text
+ * later. All sinks share the one writer thread.
+ *
+ * Rows are passed through a bounded, lock-free multi-producer queue after
+ * Vyukov. The slots are primitive arrays, so recording a row allocates
+ * nothing and never touches the file system. The writer drains the queue in
+ * batches and only flushes when the queue runs dry after writing rows. An
+ * idle writer parks until a producer or {@link #close()} wakes it, so idle
+ * sinks cost no wake-ups. On close, rows that were claimed before are still
+ * written. If the queue is full, a
+ * row is either dropped (and counted) or the caller waits for room,
+ * depending on the {@link OverflowPolicy}.
+ *
+ * When the next row would make a file exceed <code>maxFileBytes</code>, the
+ * file is renamed to <code>name.1</code>, older files are shifted up to
+ * <code>name.maxFiles</code> and the row starts a new file.
+ *
+ * @author Trust@HsH
+ */
+public class AsyncTraceSink implements TraceSink {
+
+    /**
+     * What to do with a row if the queue is full
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    /**
+     * How rows are stored in the file
+     */
+    public enum Format {
+        TEXT, BINARY
+    }
+
+    private static Logger logger = Logger.getLogger(AsyncTraceSink.class);
+
+    private static final ProcedureProbe probe = ProcedureProbes.get();
+
+    private static final int FIELDS = BinaryTraceFile.FIELDS;
+    private static final int BATCH_SIZE = 256;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // tail of a finished sink, every later claim fails and is dropped
+    private static final long FINISHED_TAIL = -1;
+
+    private final File file;
+    private final OverflowPolicy policy;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    // the queue, a slot is free for position p if its sequence is p and
+    // holds the row of position p if its sequence is p + 1
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] indices;
+    private final double[] fields;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    // only touched by the writer thread
+    private final TraceFile out;
+    private boolean opened;
+    private long head;
+    private long unflushedRows;
+    private long flushedSize;
+
+    /**
+     * Creates a sink writing text.
+     *
+     * @param file
+     * @param capacity number of rows the queue holds, rounded up to a power
+     *            of two
+     * @param policy
+     * @param maxFileBytes size at which the file is rotated, 0 for no limit
+     * @param maxFiles number of rotated files to keep
+     */
+    public AsyncTraceSink(File file, int capacity, OverflowPolicy policy, long maxFileBytes, int maxFiles) {
+        this(file, Format.TEXT, capacity, policy, maxFileBytes, maxFiles);
+    }
+
+    /**
+     * Creates the sink and registers it with the writer thread.
+     *
+     * @param file
+     * @param format
+     * @param capacity number of rows the queue holds, rounded up to a power
+     *            of two
+     * @param policy
+     * @param maxFileBytes size at which the file is rotated, 0 for no limit
+     * @param maxFiles number of rotated files to keep
+     */
+    public AsyncTraceSink(File file, Format format, int capacity, OverflowPolicy policy, long maxFileBytes,
+            int maxFiles) {
+        if (capacity < 1 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        if (maxFileBytes < 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("negative file limits: " + maxFileBytes + ", " + maxFiles);
+        }
+        this.file = file;
+        this.policy = policy;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.out = format == Format.BINARY ? new BinaryTraceFile() : new TextTraceFile();
+
+        int slots = Integer.highestOneBit(capacity);
+        if (slots < capacity) {
+            slots <<= 1;
+        }
+        this.mask = slots - 1;
+        this.sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            this.sequences.set(i, i);
+        }
+        this.indices = new long[slots];
+        this.fields = new double[slots * FIELDS];
+
+        TraceWriter.register(this);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !closed;
+    }
+
+    @Override
+    public void trace(long index, double x, double y, double slope, double intercept, double slopeStdErr,
+            double interceptStdErr, double yPredicted) {
+        while (!closed) {
+            long pos = tail.get();
+            int slot = (int) (pos & mask);
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    indices[slot] = index;
+                    int f = slot * FIELDS;
+                    fields[f] = x;
+                    fields[f + 1] = y;
+                    fields[f + 2] = slope;
+                    fields[f + 3] = intercept;
+                    fields[f + 4] = slopeStdErr;
+                    fields[f + 5] = interceptStdErr;
+                    fields[f + 6] = yPredicted;
+                    // publish the row to the writer. a full volatile write, so
+                    // that the writer either sees the row before it parks or
+                    // this sees it parked
+                    sequences.set(slot, pos + 1);
+                    TraceWriter.wake();
+                    return;
+                }
+            } else if (diff < 0) {
+                // full
+                if (policy == OverflowPolicy.DROP) {
+                    break;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * @return number of rows that were discarded because the queue was full,
+     *         the sink was closed or writing failed
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits for the writer to write out the queued rows and close the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        TraceWriter.wake();
+        try {
+            finished.await(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true once the file is closed, the writer forgets the sink then
+     */
+    boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    /**
+     * @return true if {@link #service()} has something to do, called by the
+     *         writer before it parks
+     */
+    boolean needsService() {
+        return !isFinished() && (!opened || closed || unflushedRows > 0 || hasQueued());
+    }
+
+    /**
+     * Writes a batch of queued rows, flushes once the queue ran dry and
+     * closes the file once the sink is closed and every claimed row is
+     * written. Only called by the writer thread.
+     *
+     * @return true if anything was done
+     */
+    boolean service() {
+        if (isFinished()) {
+            return false;
+        }
+        try {
+            if (!opened) {
+                opened = true;
+                out.open(file);
+                flushedSize = out.size();
+            }
+            int drained = drain(BATCH_SIZE);
+            if (drained > 0) {
+                unflushedRows += drained;
+                return true;
+            }
+            if (unflushedRows > 0) {
+                Object span = probe.beginTraceFlush();
+                out.flush();
+                // after a rotation the size starts over
+                long size = out.size();
+                probe.endTraceFlush(span, file.getPath(), unflushedRows,
+                        size >= flushedSize ? size - flushedSize : size);
+                unflushedRows = 0;
+                flushedSize = size;
+                return true;
+            }
+            if (closed && tail.compareAndSet(head, FINISHED_TAIL)) {
+                // all claimed rows are written, later claims fail
+                finish();
+                return true;
+            }
+            // a producer claimed a slot but did not publish it yet, it wakes
+            // the writer when it does
+            return false;
+        } catch (IOException e) {
+            logger.error("could not write trace to " + file + ", tracing is off from now on", e);
+            closed = true;
+            while (true) {
+                long t = tail.get();
+                if (tail.compareAndSet(t, FINISHED_TAIL)) {
+                    // rows claimed but not published yet are lost as well
+                    dropped.addAndGet(discard() + Math.max(0, t - head));
+                    break;
+                }
+            }
+            finish();
+            return true;
+        }
+    }
+
+    private void finish() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.error("could not close " + file, e);
+        }
+        finished.countDown();
+    }
+
+    /**
+     * Writes up to max queued rows.
+     *
+     * @return number of rows taken from the queue
+     */
+    private int drain(int max) throws IOException {
+        int n = 0;
+        while (n < max) {
+            long pos = head;
+            int slot = (int) (pos & mask);
+            if (sequences.get(slot) != pos + 1) {
+                break;
+            }
+            int bytes = out.stage(indices[slot], fields, slot * FIELDS);
+            // hand the slot back to the producers
+            sequences.lazySet(slot, pos + mask + 1);
+            head = pos + 1;
+            n++;
+            if (maxFileBytes > 0 && out.size() + bytes > maxFileBytes && out.size() > out.headerSize()) {
+                // the row does not fit, it starts the next file
+                rotate();
+            }
+            out.commit();
+        }
+        return n;
+    }
+
+    private boolean hasQueued() {
+        return sequences.get((int) (head & mask)) == head + 1;
+    }
+
+    private int discard() {
+        int n = 0;
+        while (true) {
+            long pos = head;
+            int slot = (int) (pos & mask);
+            if (sequences.get(slot) != pos + 1) {
+                return n;
+            }
+            sequences.lazySet(slot, pos + mask + 1);
+            head = pos + 1;
+            n++;
+        }
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        if (maxFiles == 0) {
+            delete(file);
+        } else {
+            delete(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                File from = rotated(i);
+                if (from.exists() && !from.renameTo(rotated(i + 1))) {
+                    throw new IOException("could not rename " + from);
+                }
+            }
+            if (!file.renameTo(rotated(1))) {
+                throw new IOException("could not rename " + file);
+            }
+        }
+        out.open(file);
+    }
+
+    private File rotated(int i) {
+        return new File(file.getPath() + "." + i);
+    }
+
+    private static void delete(File f) throws IOException {
+        if (f.exists() && !f.delete()) {
+            throw new IOException("could not delete " + f);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Fixed width binary rows, appended through memory mapped regions of the
+ * file so writing a row is eight stores and no formatting. All values are
+ * big endian.
+ *
+ * <pre>
+ * header, 64 bytes:
+ *   long   MAGIC
+ *   int    VERSION
+ *   int    RECORD_SIZE
+ *   long   number of rows, updated on every flush
+ *   padding
+ * row, 64 bytes:
+ *   long   idx
+ *   double x, y, slope, intercept, slopeStdErr, interceptStdErr, yPredicted
+ * </pre>
+ *
+ * The file is extended region by region while writing and cut to its rows
+ * on close, once the mapped regions are dropped. Java cannot unmap them, so
+ * where the file cannot be cut while a mapping is still live, e.g. on
+ * Windows, unused bytes stay after the rows. The number of rows in the
+ * header bounds what is read. {@link TraceConverter} turns it into the text
+ * format.
+ *
+ * @author Trust@HsH
+ */
+class BinaryTraceFile implements TraceFile {
+
+    private static Logger logger = Logger.getLogger(BinaryTraceFile.class);
+
+    /**
+     * "IRDTRACE" in ASCII
+     */
+    static final long MAGIC = 0x4952445452414345L;
+    static final int VERSION = 1;
+    static final int FIELDS = 7;
+    static final int RECORD_SIZE = 8 + FIELDS * 8;
+    static final int HEADER_SIZE = 64;
+    static final int COUNT_OFFSET = 16;
+
+    /**
+     * Bytes mapped at a time, a multiple of RECORD_SIZE
+     */
+    private static final int REGION_SIZE = RECORD_SIZE << 14;
+
+    private final double[] staged = new double[FIELDS];
+    private long stagedIndex;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionEnd;
+    private long rows;
+
+    @Override
+    public void open(File file) throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        cut(0);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putLong(0);
+        region = null;
+        regionEnd = HEADER_SIZE;
+        rows = 0;
+    }
+
+    @Override
+    public int stage(long index, double[] fields, int offset) {
+        stagedIndex = index;
+        System.arraycopy(fields, offset, staged, 0, FIELDS);
+        return RECORD_SIZE;
+    }
+
+    @Override
+    public void commit() throws IOException {
+        if (region == null || !region.hasRemaining()) {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionEnd, REGION_SIZE);
+            regionEnd += REGION_SIZE;
+        }
+        region.putLong(stagedIndex);
+        for (int i = 0; i < FIELDS; i++) {
+            region.putDouble(staged[i]);
+        }
+        rows++;
+    }
+
+    @Override
+    public long size() {
+        return HEADER_SIZE + rows * RECORD_SIZE;
+    }
+
+    @Override
+    public int headerSize() {
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Publishes the number of rows, the pages themselves are written back
+     * by the operating system.
+     */
+    @Override
+    public void flush() {
+        header.putLong(COUNT_OFFSET, rows);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (raf == null) {
+            return;
+        }
+        try {
+            flush();
+            header.force();
+            if (region != null) {
+                region.force();
+            }
+            // nothing touches the mapped pages once the file is cut
+            header = null;
+            region = null;
+            cut(size());
+        } finally {
+            header = null;
+            region = null;
+            channel = null;
+            RandomAccessFile f = raf;
+            raf = null;
+            f.close();
+        }
+    }
+
+    /**
+     * Cuts the file to length if the platform allows it while a mapping of
+     * it may still be live, leaves it as it is otherwise.
+     */
+    private void cut(long length) {
+        try {
+            if (channel.size() > length) {
+                channel.truncate(length);
+            }
+        } catch (IOException e) {
+            logger.debug("could not cut the trace file to " + length + " bytes: " + e);
+        }
+    }
+}
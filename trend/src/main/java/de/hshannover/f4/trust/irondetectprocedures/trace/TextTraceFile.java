@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Semicolon separated text for gnuplot, one row per line after a two line
+ * header.
+ *
+ * @author Trust@HsH
+ */
+class TextTraceFile implements TraceFile {
+
+    static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    static final String HEADER = "##;##" + LINE_SEPARATOR
+            + "idx;x;y;slope;intercept;slopeStdErr;interceptStdErr;yPredicted" + LINE_SEPARATOR;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final StringBuilder row = new StringBuilder(256);
+    private Writer out;
+    private long size;
+
+    /**
+     * Formats one row as a line of text.
+     *
+     * @param index
+     * @param fields
+     * @param offset
+     * @param to
+     */
+    static void appendRow(long index, double[] fields, int offset, StringBuilder to) {
+        to.append(index);
+        for (int i = 0; i < BinaryTraceFile.FIELDS - 1; i++) {
+            to.append(';').append(fields[offset + i]);
+        }
+        double yPredicted = fields[offset + BinaryTraceFile.FIELDS - 1];
+        if (yPredicted == TraceSink.NO_PREDICTION) {
+            // the placeholder is a plain 0, as it always was
+            to.append(";0");
+        } else {
+            to.append(';').append(yPredicted);
+        }
+        to.append(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void open(File file) throws IOException {
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), ASCII), 1 << 16);
+        out.write(HEADER);
+        size = HEADER.length();
+    }
+
+    @Override
+    public int stage(long index, double[] fields, int offset) {
+        row.setLength(0);
+        appendRow(index, fields, offset, row);
+        return row.length();
+    }
+
+    @Override
+    public void commit() throws IOException {
+        out.append(row);
+        size += row.length();
+        row.setLength(0);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int headerSize() {
+        return HEADER.length();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            Writer w = out;
+            out = null;
+            w.close();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Converts a binary trace written with <code>traceFormat=binary</code> into
+ * the text format for gnuplot:
+ *
+ * <pre>
+ * java -cp trend.jar de.hshannover.f4.trust.irondetectprocedures.trace.TraceConverter trendResult.bin [trendResult.txt]
+ * </pre>
+ *
+ * @author Trust@HsH
+ */
+public final class TraceConverter {
+
+    private TraceConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: TraceConverter <binary trace> [<text trace>]");
+            System.exit(1);
+        }
+        File in = new File(args[0]);
+        File out = new File(args.length == 2 ? args[1] : textName(args[0]));
+        long rows = convert(in, out);
+        System.out.println(rows + " rows written to " + out);
+    }
+
+    /**
+     * @param in binary trace
+     * @param out text trace to create
+     * @return the number of rows
+     * @throws IOException if reading or writing fails or in is no binary
+     *             trace
+     */
+    public static long convert(File in, File out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), Charset.forName("US-ASCII")), 1 << 16);
+        try {
+            return convert(in, writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @param in binary trace
+     * @param out receives the text trace
+     * @return the number of rows
+     * @throws IOException if reading or writing fails or in is no binary
+     *             trace
+     */
+    public static long convert(File in, Writer out) throws IOException {
+        FileInputStream stream = new FileInputStream(in);
+        try {
+            FileChannel channel = stream.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(BinaryTraceFile.HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            if (header.remaining() < BinaryTraceFile.HEADER_SIZE || header.getLong() != BinaryTraceFile.MAGIC) {
+                throw new IOException(in + " is no binary trace");
+            }
+            int version = header.getInt();
+            int recordSize = header.getInt();
+            if (version != BinaryTraceFile.VERSION || recordSize != BinaryTraceFile.RECORD_SIZE) {
+                throw new IOException(in + " has unsupported version " + version + " or record size " + recordSize);
+            }
+            // rows up to the last flush, never more than the file holds
+            long rows = Math.min(header.getLong(),
+                    (channel.size() - BinaryTraceFile.HEADER_SIZE) / BinaryTraceFile.RECORD_SIZE);
+
+            out.write(TextTraceFile.HEADER);
+            ByteBuffer buffer = ByteBuffer.allocate(BinaryTraceFile.RECORD_SIZE << 10);
+            double[] fields = new double[BinaryTraceFile.FIELDS];
+            StringBuilder line = new StringBuilder(256);
+            long done = 0;
+            while (done < rows) {
+                buffer.clear();
+                long left = (rows - done) * BinaryTraceFile.RECORD_SIZE;
+                if (left < buffer.capacity()) {
+                    buffer.limit((int) left);
+                }
+                readFully(channel, buffer);
+                buffer.flip();
+                if (buffer.remaining() < BinaryTraceFile.RECORD_SIZE) {
+                    break;
+                }
+                while (buffer.remaining() >= BinaryTraceFile.RECORD_SIZE) {
+                    long index = buffer.getLong();
+                    for (int i = 0; i < fields.length; i++) {
+                        fields[i] = buffer.getDouble();
+                    }
+                    line.setLength(0);
+                    TextTraceFile.appendRow(index, fields, 0, line);
+                    out.append(line);
+                    done++;
+                }
+            }
+            return done;
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading
+        }
+    }
+
+    private static String textName(String binaryName) {
+        if (binaryName.endsWith(".bin")) {
+            return binaryName.substring(0, binaryName.length() - 4) + ".txt";
+        }
+        return binaryName + ".txt";
+    }
+}
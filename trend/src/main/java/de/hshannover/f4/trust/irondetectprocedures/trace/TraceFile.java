@@ -0,0 +1,103 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The file end of an {@link AsyncTraceSink}, only used by its writer
+ * thread. A row is first staged, so the sink can decide whether it still
+ * fits into the current file, and then committed.
+ *
+ * @author Trust@HsH
+ */
+interface TraceFile {
+
+    /**
+     * Creates or truncates the file and writes the header.
+     *
+     * @param file
+     * @throws IOException
+     */
+    void open(File file) throws IOException;
+
+    /**
+     * Stages a row, replacing a staged row that was not committed.
+     *
+     * @param index
+     * @param fields the seven double columns starting at offset
+     * @param offset
+     * @return the number of bytes the row takes in the file
+     */
+    int stage(long index, double[] fields, int offset);
+
+    /**
+     * Appends the staged row.
+     *
+     * @throws IOException
+     */
+    void commit() throws IOException;
+
+    /**
+     * @return bytes in the file including the header and committed rows
+     *         that are not written out yet
+     */
+    long size();
+
+    /**
+     * @return bytes taken by the header
+     */
+    int headerSize();
+
+    /**
+     * Hands the committed rows to the operating system.
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException;
+
+    /**
+     * Writes out everything and closes the file, does nothing if it is not
+     * open.
+     *
+     * @throws IOException
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+/**
+ * Receives one row of regression results per evaluation of a trend
+ * procedure, for plotting them later. Implementations must not block the
+ * caller on I/O and must not build strings on its behalf.
+ *
+ * @author Trust@HsH
+ */
+public interface TraceSink {
+
+    /**
+     * yPredicted of rows for which there is no prediction yet, written as
+     * <code>0</code> in text
+     */
+    double NO_PREDICTION = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @return false if {@link #trace} discards everything, callers may skip
+     *         preparing a row then
+     */
+    boolean isEnabled();
+
+    /**
+     * Records one row.
+     *
+     * @param index running number of the row
+     * @param x
+     * @param y
+     * @param slope
+     * @param intercept
+     * @param slopeStdErr
+     * @param interceptStdErr
+     * @param yPredicted the value predicted for the current x by an earlier
+     *            row, {@link #NO_PREDICTION} if there is none yet
+     */
+    void trace(long index, double x, double y, double slope, double intercept, double slopeStdErr,
+            double interceptStdErr, double yPredicted);
+
+    /**
+     * Writes out what was recorded so far and releases all resources. Rows
+     * recorded afterwards are discarded.
+     */
+    void close();
+}
@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+
+/**
+ * Creates the trace sink a procedure configuration asks for. Options:
+ *
+ * <pre>
+ * trace=file|off        default file
+ * traceFormat=text|binary  default text
+ * traceFile=name        default depends on the procedure, .bin instead of
+ *                       .txt for binary
+ * traceCapacity=1024    queued rows
+ * tracePolicy=drop|block  what to do if the queue is full, default drop
+ * traceMaxBytes=16777216  rotate the file at this size, 0 for never
+ * traceFiles=1          rotated files to keep
+ * </pre>
+ *
+ * Every sink writes its own file. Trend and TrendByValue share the default
+ * name <code>trendResult.txt</code>: the first instance of either writes to
+ * it as before, later instances get {@link #numbered(String) numbered} names
+ * <code>trendResult1.txt</code>, <code>trendResult2.txt</code> and so on.
+ * TrendByValueCW numbers all its files, starting at
+ * <code>trendResultCW0.txt</code>. Set traceFile to choose the name.
+ *
+ * @author Trust@HsH
+ */
+public final class TraceSinks {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long DEFAULT_MAX_BYTES = 16L << 20;
+    public static final int DEFAULT_MAX_FILES = 1;
+
+    private static final ConcurrentMap<String, AtomicInteger> USES = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private TraceSinks() {
+    }
+
+    /**
+     * @param config
+     * @param defaultFileName
+     * @return the configured sink
+     * @throws IllegalArgumentException for an unknown trace, traceFormat or
+     *             tracePolicy
+     */
+    public static TraceSink create(ProcedureConfig config, String defaultFileName) {
+        String trace = config.getString("trace", "file");
+        if ("off".equals(trace)) {
+            return NoopTraceSink.INSTANCE;
+        }
+        if (!"file".equals(trace)) {
+            throw new IllegalArgumentException("unknown trace: " + trace);
+        }
+        AsyncTraceSink.Format format = option(AsyncTraceSink.Format.class, config, "traceFormat", "text");
+        AsyncTraceSink.OverflowPolicy policy = option(AsyncTraceSink.OverflowPolicy.class, config, "tracePolicy", "drop");
+        String fileName = defaultFileName;
+        if (format == AsyncTraceSink.Format.BINARY && fileName.endsWith(".txt")) {
+            fileName = fileName.substring(0, fileName.length() - 4) + ".bin";
+        }
+        return new AsyncTraceSink(new File(config.getString("traceFile", fileName)), format,
+                config.getInt("traceCapacity", DEFAULT_CAPACITY), policy,
+                config.getLong("traceMaxBytes", DEFAULT_MAX_BYTES), config.getInt("traceFiles", DEFAULT_MAX_FILES));
+    }
+
+    /**
+     * @param fileName
+     * @return fileName on the first call for it, then fileName with 1, 2, ...
+     *         inserted before the extension
+     */
+    public static String numbered(String fileName) {
+        AtomicInteger uses = USES.get(fileName);
+        if (uses == null) {
+            AtomicInteger created = new AtomicInteger();
+            uses = USES.putIfAbsent(fileName, created);
+            if (uses == null) {
+                uses = created;
+            }
+        }
+        int n = uses.getAndIncrement();
+        if (n == 0) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? fileName + n : fileName.substring(0, dot) + n + fileName.substring(dot);
+    }
+
+    private static <E extends Enum<E>> E option(Class<E> type, ProcedureConfig config, String key, String defaultValue) {
+        String value = config.getString(key, defaultValue);
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + key + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The one background thread that writes the rows of all
+ * {@link AsyncTraceSink}s, so a policy with thousands of traced procedures
+ * does not start thousands of threads. It visits the sinks in turn, each for
+ * a batch of rows, and parks while none of them has anything to do.
+ * Producers wake it with {@link #wake()} after publishing a row.
+ *
+ * @author Trust@HsH
+ */
+final class TraceWriter implements Runnable {
+
+    private static final TraceWriter INSTANCE = new TraceWriter();
+
+    private final List<AsyncTraceSink> sinks = new CopyOnWriteArrayList<AsyncTraceSink>();
+    private volatile Thread thread;
+    // set while the thread is about to park or parked
+    private volatile boolean parked;
+
+    private TraceWriter() {
+    }
+
+    /**
+     * Starts serving a sink, and the thread if it is not running yet.
+     *
+     * @param sink
+     */
+    static void register(AsyncTraceSink sink) {
+        INSTANCE.sinks.add(sink);
+        INSTANCE.start();
+        wake();
+    }
+
+    /**
+     * Wakes the thread if it is parked. Callers must have made their change
+     * visible with a volatile write before.
+     */
+    static void wake() {
+        Thread t = INSTANCE.thread;
+        if (INSTANCE.parked && t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private synchronized void start() {
+        if (thread == null) {
+            Thread t = new Thread(this, "trace-writer");
+            t.setDaemon(true);
+            t.start();
+            thread = t;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            boolean busy = false;
+            for (AsyncTraceSink sink : sinks) {
+                busy |= sink.service();
+                if (sink.isFinished()) {
+                    sinks.remove(sink);
+                }
+            }
+            if (busy) {
+                continue;
+            }
+            parked = true;
+            if (!needsService()) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+
+    private boolean needsService() {
+        for (AsyncTraceSink sink : sinks) {
+            if (sink.needsService()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
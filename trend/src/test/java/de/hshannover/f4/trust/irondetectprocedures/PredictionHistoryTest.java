@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class PredictionHistoryTest {
+
+    @Test
+    public void laggedMatchesUnboundedList() {
+        int lag = 10;
+        PredictionHistory history = new PredictionHistory(lag);
+        List<Double> all = new ArrayList<Double>();
+        for (int i = 0; i < 100; i++) {
+            double predicted = i * 1.5;
+            history.add(i + lag, predicted, i);
+            all.add(predicted);
+            if (all.size() < lag) {
+                assertFalse(history.isFull());
+                assertTrue(Double.isNaN(history.getLagged()));
+            } else {
+                assertEquals(all.get(all.size() - lag), history.getLagged(), 0);
+                assertEquals(all.size(), history.getLaggedTime(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void errors() {
+        PredictionHistory history = new PredictionHistory(2);
+        history.add(0, 10, 0);
+        assertTrue(Double.isNaN(history.getLastError()));
+        history.add(1, 20, 13);
+        assertEquals(3, history.getLastError(), 0);
+        history.add(2, 30, 16);
+        assertEquals(-4, history.getLastError(), 0);
+        assertEquals(2, history.getErrorCount());
+        assertEquals(3.5, history.getMeanAbsoluteError(), 1e-12);
+        assertEquals(Math.sqrt(12.5), history.getRootMeanSquareError(), 1e-12);
+        history.clear();
+        assertEquals(0, history.getErrorCount());
+        assertFalse(history.isFull());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class SlidingRegressionTest {
+
+    @Test
+    public void slidingMatchesRebuiltSimpleRegression() {
+        Random random = new Random(7);
+        int n = 5000;
+        int w = 25;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // seconds since the first point, like TrendByValueCW
+            xs[i] = i * 60 + random.nextInt(30);
+            ys[i] = 1000 + 0.5 * i + random.nextGaussian() * 10;
+        }
+
+        SlidingRegression sliding = new SlidingRegression();
+        for (int i = 0; i < n; i++) {
+            sliding.addData(xs[i], ys[i]);
+            if (i >= w) {
+                sliding.removeData(xs[i - w], ys[i - w]);
+            }
+            if (sliding.getRemovals() >= w) {
+                // rebuild now and then, as documented
+                sliding.clear();
+                for (int j = i - w + 1; j <= i; j++) {
+                    sliding.addData(xs[j], ys[j]);
+                }
+            }
+            if (i >= w - 1) {
+                SimpleRegression expected = new SimpleRegression();
+                for (int j = i - w + 1; j <= i; j++) {
+                    expected.addData(xs[j], ys[j]);
+                }
+                assertEquals(w, sliding.getN());
+                assertClose(expected.getSlope(), sliding.getSlope());
+                assertClose(expected.getIntercept(), sliding.getIntercept());
+                assertClose(expected.getSlopeStdErr(), sliding.getSlopeStdErr());
+                assertClose(expected.getInterceptStdErr(), sliding.getInterceptStdErr());
+                assertClose(expected.predict(xs[i] + 10), sliding.predict(xs[i] + 10));
+            }
+        }
+    }
+
+    @Test
+    public void degenerateWindows() {
+        SlidingRegression sliding = new SlidingRegression();
+        assertTrue(Double.isNaN(sliding.getSlope()));
+        sliding.addData(1, 2);
+        assertTrue(Double.isNaN(sliding.getSlope()));
+        sliding.addData(2, 4);
+        assertEquals(2, sliding.getSlope(), 1e-12);
+        assertTrue(Double.isNaN(sliding.getSlopeStdErr()));
+        sliding.removeData(1, 2);
+        sliding.removeData(2, 4);
+        assertEquals(0, sliding.getN());
+        sliding.addData(5, 1);
+        sliding.addData(5, 3);
+        assertTrue(Double.isNaN(sliding.getSlope()));
+        assertEquals(2, sliding.getRemovals());
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.max(1e-12, Math.abs(expected) * 1e-7));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class TimeSeriesWindowTest {
+
+    @Test
+    public void keepsOnlyTheNewestPoints() {
+        TimeSeriesWindow window = new TimeSeriesWindow(3);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(window.add(i, i * 10));
+        }
+        assertEquals(3, window.size());
+        assertEquals(7, window.getTime(0));
+        assertEquals(90.0, window.getValue(2), 0);
+    }
+
+    @Test
+    public void insertsLatePointsInOrder() {
+        TimeSeriesWindow window = new TimeSeriesWindow(4);
+        window.add(10, 1);
+        window.add(30, 3);
+        window.add(20, 2);
+        window.add(40, 4);
+        window.add(25, 2.5);
+        assertEquals(4, window.size());
+        assertEquals(20, window.getTime(0));
+        assertEquals(25, window.getTime(1));
+        assertEquals(2.5, window.getValue(1), 0);
+        assertFalse(window.add(5, 0));
+    }
+
+    @Test
+    public void matchesSortedSuffix() {
+        Random random = new Random(42);
+        int capacity = 50;
+        TimeSeriesWindow window = new TimeSeriesWindow(capacity);
+        List<Long> all = new ArrayList<Long>();
+        for (int i = 0; i < 1000; i++) {
+            long time = i + random.nextInt(200);
+            all.add(time);
+            window.add(time, time);
+        }
+        Collections.sort(all);
+        List<Long> newest = all.subList(all.size() - capacity, all.size());
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(newest.get(i).longValue(), window.getTime(i));
+            assertEquals(newest.get(i).doubleValue(), window.getValue(i), 0);
+        }
+    }
+}
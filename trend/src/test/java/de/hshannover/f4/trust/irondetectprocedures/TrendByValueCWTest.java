@@ -0,0 +1,119 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetect.model.Context;
+import de.hshannover.f4.trust.irondetect.model.ContextParamType;
+import de.hshannover.f4.trust.irondetect.model.ContextParameter;
+import de.hshannover.f4.trust.irondetect.model.Feature;
+import de.hshannover.f4.trust.irondetect.model.FeatureType;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.StateSnapshot;
+
+/**
+ *
+ * @author Trust@HsH
+ */
+public class TrendByValueCWTest {
+
+    private static final String CONFIG = "1;freshness=3;trace=off";
+
+    @Test
+    public void testTimeOriginIsOldestOfFreshestPoints() {
+        TrendByValueCW instance = new TrendByValueCW();
+        instance.setUp(CONFIG);
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 5; i++) {
+            features.add(feature(String.valueOf(1000 * (i + 1)), i * 10000L));
+        }
+
+        instance.calculate(features, new ArrayList<Context>());
+
+        // the window holds the points at 20, 30 and 40 seconds
+        StateSnapshot snapshot = instance.state.snapshot();
+        assertEquals(20, snapshot.get("x"), 0);
+        assertEquals(0.1, snapshot.get("slope"), 1e-9);
+        assertEquals(3, snapshot.get("intercept"), 1e-9);
+
+        features.clear();
+        features.add(feature("6000", 50000L));
+        instance.calculate(features, new ArrayList<Context>());
+        assertEquals(30, instance.state.snapshot().get("x"), 0);
+        instance.tearDown(CONFIG);
+    }
+
+    @Test
+    public void testPredictionErrorsArePublished() {
+        TrendByValueCW instance = new TrendByValueCW();
+        instance.setUp(CONFIG);
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < 15; i++) {
+            features.clear();
+            features.add(feature(String.valueOf(1000 * (i % 4) + 500 * i), i * 10000L));
+            instance.calculate(features, new ArrayList<Context>());
+        }
+
+        PredictionHistory predictions = instance.getPredictionHistory();
+        assertTrue(predictions.getErrorCount() > 0);
+        StateSnapshot snapshot = InspectionRegistry.get().snapshot(instance.state.getName());
+        assertEquals(predictions.getMeanAbsoluteError(), snapshot.get("meanAbsoluteError"), 0);
+        assertEquals(predictions.getRootMeanSquareError(), snapshot.get("rootMeanSquareError"), 0);
+        assertTrue(snapshot.get("rootMeanSquareError") >= snapshot.get("meanAbsoluteError"));
+        instance.tearDown(CONFIG);
+    }
+
+    static Feature feature(String value, long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        List<ContextParameter> ctxp = new ArrayList<ContextParameter>();
+        ctxp.add(new ContextParameter(new ContextParamType(ContextParamType.DATETIME), format.format(new Date(millis))));
+        return new Feature("feature", value, new FeatureType(FeatureType.QUANTITIVE), ctxp);
+    }
+}
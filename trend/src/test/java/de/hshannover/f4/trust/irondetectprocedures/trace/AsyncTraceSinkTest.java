@@ -0,0 +1,270 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+
+/**
+ * @author Trust@HsH
+ */
+public class AsyncTraceSinkTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("trace", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void writesHeaderAndRows() throws IOException {
+        File file = new File(dir, "trend.txt");
+        AsyncTraceSink sink = new AsyncTraceSink(file, 4, AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+        for (int i = 0; i < 100; i++) {
+            sink.trace(i, i, 2.5, 0.5, 1, 0.25, 0.125, 0);
+        }
+        sink.close();
+        assertFalse(sink.isEnabled());
+
+        List<String> lines = read(file);
+        assertEquals(102, lines.size());
+        assertEquals("##;##", lines.get(0));
+        assertEquals("idx;x;y;slope;intercept;slopeStdErr;interceptStdErr;yPredicted", lines.get(1));
+        assertEquals("7;7.0;2.5;0.5;1.0;0.25;0.125;0.0", lines.get(9));
+        assertEquals(0, sink.getDropped());
+    }
+
+    @Test
+    public void writesMissingPredictionAsPlainZero() throws IOException {
+        File text = new File(dir, "trend.txt");
+        File binary = new File(dir, "trend.bin");
+        AsyncTraceSink textSink = new AsyncTraceSink(text, 4, AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+        AsyncTraceSink binarySink = new AsyncTraceSink(binary, AsyncTraceSink.Format.BINARY, 4,
+                AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+        textSink.trace(0, 1, 2, 3, 4, 5, 6, TraceSink.NO_PREDICTION);
+        binarySink.trace(0, 1, 2, 3, 4, 5, 6, TraceSink.NO_PREDICTION);
+        textSink.close();
+        binarySink.close();
+
+        assertEquals("0;1.0;2.0;3.0;4.0;5.0;6.0;0", read(text).get(2));
+        File converted = new File(dir, "converted.txt");
+        assertEquals(1, TraceConverter.convert(binary, converted));
+        assertEquals(read(text), read(converted));
+    }
+
+    @Test
+    public void rotatesAtSizeLimit() throws IOException {
+        File file = new File(dir, "trend.txt");
+        AsyncTraceSink sink = new AsyncTraceSink(file, 16, AsyncTraceSink.OverflowPolicy.BLOCK, 1000, 2);
+        for (int i = 0; i < 1000; i++) {
+            sink.trace(i, i, 1, 1, 1, 1, 1, 1);
+        }
+        sink.close();
+
+        assertTrue(file.length() <= 1000);
+        assertTrue(new File(dir, "trend.txt.1").length() <= 1000);
+        assertTrue(new File(dir, "trend.txt.2").exists());
+        assertFalse(new File(dir, "trend.txt.3").exists());
+        List<String> lines = read(file);
+        assertEquals("999;999.0;1.0;1.0;1.0;1.0;1.0;1.0", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void dropsAreCounted() throws IOException {
+        File file = new File(dir, "trend.txt");
+        AsyncTraceSink sink = new AsyncTraceSink(file, 2, AsyncTraceSink.OverflowPolicy.DROP, 0, 1);
+        int rows = 10000;
+        for (int i = 0; i < rows; i++) {
+            sink.trace(i, i, 1, 1, 1, 1, 1, 1);
+        }
+        sink.close();
+        sink.trace(rows, 0, 0, 0, 0, 0, 0, 0);
+        assertEquals(rows + 1, read(file).size() - 2 + sink.getDropped());
+    }
+
+    @Test
+    public void binaryConvertsToTheSameText() throws IOException {
+        File text = new File(dir, "trend.txt");
+        File binary = new File(dir, "trend.bin");
+        AsyncTraceSink textSink = new AsyncTraceSink(text, 64, AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+        AsyncTraceSink binarySink = new AsyncTraceSink(binary, AsyncTraceSink.Format.BINARY, 64,
+                AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+        int rows = 20000;
+        for (int i = 0; i < rows; i++) {
+            double x = i * 0.1;
+            textSink.trace(i, x, x * x, Math.PI, -x, Double.NaN, 1e-300, i % 7);
+            binarySink.trace(i, x, x * x, Math.PI, -x, Double.NaN, 1e-300, i % 7);
+        }
+        textSink.close();
+        binarySink.close();
+
+        assertEquals(BinaryTraceFile.HEADER_SIZE + rows * BinaryTraceFile.RECORD_SIZE, binary.length());
+        File converted = new File(dir, "converted.txt");
+        assertEquals(rows, TraceConverter.convert(binary, converted));
+        assertEquals(read(text), read(converted));
+    }
+
+    @Test
+    public void binaryRotatesAtRecordBoundaries() throws IOException {
+        File binary = new File(dir, "trend.bin");
+        long maxBytes = BinaryTraceFile.HEADER_SIZE + 10 * BinaryTraceFile.RECORD_SIZE;
+        AsyncTraceSink sink = new AsyncTraceSink(binary, AsyncTraceSink.Format.BINARY, 16,
+                AsyncTraceSink.OverflowPolicy.BLOCK, maxBytes, 1);
+        for (int i = 0; i < 25; i++) {
+            sink.trace(i, i, 0, 0, 0, 0, 0, 0);
+        }
+        sink.close();
+
+        assertEquals(BinaryTraceFile.HEADER_SIZE + 5 * BinaryTraceFile.RECORD_SIZE, binary.length());
+        assertEquals(maxBytes, new File(dir, "trend.bin.1").length());
+        File converted = new File(dir, "converted.txt");
+        assertEquals(5, TraceConverter.convert(binary, converted));
+        assertEquals("20;20.0;0.0;0.0;0.0;0.0;0.0;0.0", read(converted).get(2));
+    }
+
+    @Test
+    public void sinksShareOneWriterThread() throws IOException {
+        List<AsyncTraceSink> sinks = new ArrayList<AsyncTraceSink>();
+        for (int i = 0; i < 50; i++) {
+            AsyncTraceSink sink = new AsyncTraceSink(new File(dir, "trend" + i + ".txt"), 4,
+                    AsyncTraceSink.OverflowPolicy.BLOCK, 0, 1);
+            sink.trace(i, i, 0, 0, 0, 0, 0, 0);
+            sinks.add(sink);
+        }
+        int writers = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("trace-writer")) {
+                writers++;
+            }
+        }
+        for (AsyncTraceSink sink : sinks) {
+            sink.close();
+        }
+
+        assertEquals(1, writers);
+        assertEquals("49;49.0;0.0;0.0;0.0;0.0;0.0;0.0", read(new File(dir, "trend49.txt")).get(2));
+    }
+
+    @Test
+    public void closeAccountsForEveryRow() throws Exception {
+        File file = new File(dir, "trend.txt");
+        final AsyncTraceSink sink = new AsyncTraceSink(file, 64, AsyncTraceSink.OverflowPolicy.DROP, 0, 1);
+        final long[] traced = new long[4];
+        Thread[] producers = new Thread[traced.length];
+        for (int t = 0; t < producers.length; t++) {
+            final int id = t;
+            producers[t] = new Thread() {
+                @Override
+                public void run() {
+                    while (sink.isEnabled()) {
+                        sink.trace(traced[id]++, id, 0, 0, 0, 0, 0, 0);
+                    }
+                }
+            };
+            producers[t].start();
+        }
+        Thread.sleep(50);
+        sink.close();
+        for (Thread t : producers) {
+            t.join();
+        }
+
+        long total = 0;
+        for (long n : traced) {
+            total += n;
+        }
+        assertEquals(total, read(file).size() - 2 + sink.getDropped());
+    }
+
+    @Test
+    public void offIsNoop() {
+        TraceSink sink = TraceSinks.create(ProcedureConfig.parse("1;trace=off"), new File(dir, "x").getPath());
+        assertFalse(sink.isEnabled());
+        sink.trace(0, 0, 0, 0, 0, 0, 0, 0);
+        sink.close();
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void firstNameIsKept() {
+        String name = new File(dir, "numbered.txt").getPath();
+        assertEquals(name, TraceSinks.numbered(name));
+        assertEquals(new File(dir, "numbered1.txt").getPath(), TraceSinks.numbered(name));
+        assertEquals(new File(dir, "numbered2.txt").getPath(), TraceSinks.numbered(name));
+    }
+
+    private static List<String> read(File file) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}
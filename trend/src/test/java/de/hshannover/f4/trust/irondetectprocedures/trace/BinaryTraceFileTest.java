@@ -0,0 +1,108 @@
+/*
+ * #%L
+ * =====================================================
+ *    _____                _     ____  _   _       _   _
+ *   |_   _|_ __ _   _ ___| |_  / __ \| | | | ___ | | | |
+ *     | | | '__| | | / __| __|/ / _` | |_| |/ __|| |_| |
+ *     | | | |  | |_| \__ \ |_| | (_| |  _  |\__ \|  _  |
+ *     |_| |_|   \__,_|___/\__|\ \__,_|_| |_||___/|_| |_|
+ *                              \____/
+ *  
+ *  =====================================================
+ * 
+ * Hochschule Hannover 
+ * (University of Applied Sciences and Arts, Hannover)
+ * Faculty IV, Dept. of Computer Science
+ * Ricklinger Stadtweg 118, 30459 Hannover, Germany
+ * 
+ * Email: trust@f4-i.fh-hannover.de
+ * Website: http://trust.f4.hs-hannover.de/
+ * 
+ * This file is part of trend, version 0.0.5, 
+ * implemented by the Trust@HsH research group at the Hochschule Hannover.
+ * %%
+ * Copyright (C) 2011 - 2013 Trust@HsH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.hshannover.f4.trust.irondetectprocedures.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Trust@HsH
+ */
+public class BinaryTraceFileTest {
+
+    private static final boolean CUTS_MAPPED_FILES = !System.getProperty("os.name").startsWith("Windows");
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("trace", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void closeThenReopen() throws IOException {
+        File file = new File(dir, "trend.bin");
+        BinaryTraceFile out = new BinaryTraceFile();
+        write(out, file, 5);
+        assertEquals(5, TraceConverter.convert(file, new StringWriter()));
+        if (CUTS_MAPPED_FILES) {
+            assertEquals(BinaryTraceFile.HEADER_SIZE + 5 * BinaryTraceFile.RECORD_SIZE, file.length());
+        }
+
+        // the same file again, with fewer rows than before
+        write(out, file, 2);
+        StringWriter text = new StringWriter();
+        assertEquals(2, TraceConverter.convert(file, text));
+        assertTrue(text.toString().endsWith("1;1.0;2.0;3.0;4.0;5.0;6.0;7.0" + TextTraceFile.LINE_SEPARATOR));
+        if (CUTS_MAPPED_FILES) {
+            assertEquals(BinaryTraceFile.HEADER_SIZE + 2 * BinaryTraceFile.RECORD_SIZE, file.length());
+        }
+    }
+
+    private static void write(BinaryTraceFile out, File file, int rows) throws IOException {
+        double[] fields = new double[BinaryTraceFile.FIELDS];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = i + 1;
+        }
+        out.open(file);
+        for (int i = 0; i < rows; i++) {
+            out.stage(i, fields, 0);
+            out.commit();
+        }
+        out.close();
+    }
+}
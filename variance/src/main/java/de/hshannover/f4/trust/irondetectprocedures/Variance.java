@@ -46,12 +46,20 @@ import org.apache.log4j.Logger;
 
 import de.hshannover.f4.trust.irondetect.model.Context;
 import de.hshannover.f4.trust.irondetect.model.Feature;
-import de.hshannover.f4.trust.irondetect.model.FeatureType;
 import de.hshannover.f4.trust.irondetect.model.ProcedureResult;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.Boundary;
 import de.hshannover.f4.trust.irondetect.procedure.ProcedureResultMapper.DistanceType;
 import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.InspectionRegistry;
+import de.hshannover.f4.trust.irondetectprocedures.inspect.PublishedState;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbe;
+import de.hshannover.f4.trust.irondetectprocedures.probe.ProcedureProbes;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureBatch;
+import de.hshannover.f4.trust.irondetectprocedures.util.FeatureCursor;
+import de.hshannover.f4.trust.irondetectprocedures.util.ParallelMoments;
+import de.hshannover.f4.trust.irondetectprocedures.util.ProcedureConfig;
+import de.hshannover.f4.trust.irondetectprocedures.util.RunningMoments;
 
 
 /**
@@ -63,6 +71,8 @@ import de.hshannover.f4.trust.irondetect.procedure.Procedureable;
 public class Variance implements Procedureable {
 
 	private static Logger logger = Logger.getLogger(Variance.class);
+
+	private static final ProcedureProbe probe = ProcedureProbes.get();
 	
 	/**
 	 * As specified in the policy
@@ -79,55 +89,92 @@ public class Variance implements Procedureable {
 	 */
 	boolean trainingDone;
 	
+	/**
+	 * Flag that indicates if the variance is updated incrementally with new features
+	 * instead of being recalculated over the whole feature set
+	 */
+	private boolean streaming;
+	
+	/**
+	 * Running moments of the features seen in streaming mode
+	 */
+	private final RunningMoments moments = new RunningMoments();
+	
+	private final FeatureCursor cursor = new FeatureCursor();
+	
+	/**
+	 * State published for inspection after each evaluation
+	 */
+	private final PublishedState state = new PublishedState(Variance.class.getName(), PublishedState.expectation(), 0);
+
 	public Variance() {
 	}
 
 	@Override
 	public void setUp(String config) {
 		logger.trace("setUp(" + config + ")");
-		this.expectedByPolicy = Double.parseDouble(config);
+		ProcedureConfig procedureConfig = ProcedureConfig.parse(config);
+		this.expectedByPolicy = procedureConfig.getExpected();
+		this.streaming = "streaming".equals(procedureConfig.getString("mode", "batch"));
+		this.moments.clear();
+		this.cursor.reset();
 		this.trainingDone = false;
+		InspectionRegistry.register(state);
 	}
 
 	@Override
 	public ProcedureResult calculate(List<Feature> featureSet, List<Context> contextSet) {
 		logger.trace("calculate");
-		// get values from features
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
+		Object span = probe.beginCalculate();
+		double variance = Double.NaN;
+		double expected = Double.NaN;
+		try {
+			if (streaming) {
+				// only take in features that were not seen before
+				moments.addUnseen(featureSet, cursor);
+				variance = moments.getVariance();
+			} else {
+				// get values from features, parsed once per feature set
+				FeatureBatch batch = FeatureBatch.of(featureSet);
+				// calculate variance
+				variance = StatUtils.variance(batch.values(), 0, batch.size());
 			}
-		}
-		// calculate variance
-		double variance = StatUtils.variance(values);
-		// dispatch between policy defined and trained mean, prefer trained mean
-		double expected = this.trainingDone ? trained : expectedByPolicy;
+			// dispatch between policy defined and trained mean, prefer trained mean
+			expected = this.trainingDone ? trained : expectedByPolicy;
 		
-		return ProcedureResultMapper.map(variance, expected, DistanceType.percent, Boundary.high, 25, 50);
+			ProcedureResult result = ProcedureResultMapper.map(variance, expected, DistanceType.percent, Boundary.high, 25, 50);
+			this.state.publish(variance, expected, this.trained, this.expectedByPolicy, this.trainingDone);
+			return result;
+		} finally {
+			probe.endCalculate(span, Variance.class, featureSet.size(), variance, expected);
+		}
 	}
 	
 	@Override
 	public void tearDown(String config) {
 		logger.trace("tearDown()");
+		// drop the parsed features this thread keeps for the next evaluation
+		FeatureBatch.release();
+		InspectionRegistry.unregister(state);
 	}
 
 	@Override
 	public void train(List<Feature> featureSet, List<Context> contextSet, Calendar start, Calendar end) {
 		logger.trace("start training ...");
-		// get values from features
-		// FIXME what if different types if features are used?
-		double[] values = new double[featureSet.size()];
-		for (int i = 0; i < featureSet.size(); i++) {
-			if(featureSet.get(i).getType().getTypeId() == FeatureType.QUANTITIVE){
-				values[i] = Double.valueOf(featureSet.get(i).getValue());
-			}
-		}
+		Object span = probe.beginTrain();
+		try {
+			// parse and reduce large training sets in parallel
+			// FIXME what if different types if features are used?
+			RunningMoments trainingMoments = ParallelMoments.compute(featureSet);
 		
-		// store as trained value
-		this.trained = StatUtils.variance(values); 
-		this.trainingDone = true;	
-		logger.trace("training was done. value is " + this.trained);
+			// store as trained value
+			this.trained = trainingMoments.getVariance();
+			this.trainingDone = true;	
+			this.state.publish(Double.NaN, this.trained, this.trained, this.expectedByPolicy, this.trainingDone);
+			logger.trace("training was done. value is " + this.trained);
+		} finally {
+			probe.endTrain(span, Variance.class, featureSet.size(), start, end);
+		}
 	}
 	
 }